@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.jmh;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.annotation.TestedController;
+import org.joyrest.test.unit.easymock.GeneratedInjector;
+import org.joyrest.test.unit.easymock.GeneratedInjectors;
+import org.joyrest.test.unit.easymock.Injector;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Base class of controller benchmarks. A subclass is annotated by {@link TestedController} in the same way
+ * as a unit test, records stubbed behavior of its mocks in {@link #record()} and provides request templates
+ * in {@link #requests()}. Requests are dispatched through {@link ControllerUnitTest#call} in a round-robin fashion,
+ * so the benchmark measures exactly what a unit test executes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public abstract class ControllerBenchmark extends ControllerUnitTest {
+
+	private HttpMethod[] methods;
+
+	private String[] paths;
+
+	private MockRequest<?>[] requests;
+
+	private MockResponse<?>[] responses;
+
+	private int position = 0;
+
+	/**
+	 * Records behavior of mocks, expectations are expected to be repeatable (e.g. {@code anyTimes()}).
+	 */
+	protected abstract void record();
+
+	protected abstract List<MockRequest<?>> requests();
+
+	@Setup
+	public void setUp() {
+		holder.setController(createController());
+		record();
+		replayAll();
+		initialize();
+
+		List<MockRequest<?>> templates = requests();
+		if (templates.isEmpty())
+			throw new RuntimeException("There is no defined any request template.");
+
+		requests = templates.toArray(new MockRequest<?>[templates.size()]);
+		methods = new HttpMethod[requests.length];
+		paths = new String[requests.length];
+		responses = new MockResponse<?>[requests.length];
+		for (int i = 0; i < requests.length; i++) {
+			// call prefixes the path by the controller path, the template has to keep the relative one
+			methods[i] = requests[i].getMethod();
+			paths[i] = requests[i].getPath();
+			responses[i] = new MockResponse<>();
+		}
+	}
+
+	@Benchmark
+	public MockResponse<?> call() {
+		int i = next();
+		call(methods[i], paths[i], requests[i], responses[i].reset());
+		return responses[i];
+	}
+
+	/**
+	 * Creates a request template, the path is relative to the controller path.
+	 */
+	protected <E> MockRequest<E> request(HttpMethod method, String path) {
+		MockRequest<E> request = new MockRequest<>();
+		request.setMethod(method);
+		request.setPath(path);
+		return request;
+	}
+
+	private int next() {
+		int current = position;
+		position = current + 1 == requests.length ? 0 : current + 1;
+		return current;
+	}
+
+	private ControllerConfiguration createController() {
+		TestedController annotation = getClass().getAnnotation(TestedController.class);
+		if (isNull(annotation))
+			throw new RuntimeException(format("Benchmark '%s' has to be annotated by '%s'.",
+				getClass().getCanonicalName(), TestedController.class.getCanonicalName()));
+
+		holder.setControllerPath(annotation.controllerPath());
+		Optional<GeneratedInjector<EasyMockSupport>> injector = GeneratedInjectors.find(getClass());
+		if (injector.isPresent()) {
+			ControllerConfiguration controller = (ControllerConfiguration) injector.get().createSubject();
+			injector.get().injectMocks(this, controller);
+			return controller;
+		}
+
+		ControllerConfiguration controller;
+		try {
+			controller = annotation.value().newInstance();
+		} catch (Exception e) {
+			throw new RuntimeException(
+				format("Error occurred during initialization class '%s'.", annotation.value().getCanonicalName()), e);
+		}
+
+		Injector.injectMocks(this, controller);
+		return controller;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.jmh.injection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joyrest.test.unit.easymock.Injector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the first injection in a fresh JVM, both for the reflection-based {@link Injector} and
+ * for the injector generated by {@link org.joyrest.test.unit.processor.InjectorProcessor}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class InjectionStartupBenchmark {
+
+	@Benchmark
+	public SampleController reflection() {
+		SampleController controller = new SampleController();
+		Injector.injectMocks(new SampleTest(), controller);
+		return controller;
+	}
+
+	@Benchmark
+	public SampleController generated() {
+		SampleController controller = new SampleController();
+		new SampleTest_JoyrestInjector().injectMocks(new SampleTest(), controller);
+		return controller;
+	}
+}
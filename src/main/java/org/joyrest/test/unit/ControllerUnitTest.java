@@ -17,13 +17,34 @@ package org.joyrest.test.unit;
 
 import static java.lang.String.format;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.joyrest.exception.type.RestException.notFoundSupplier;
 import static org.joyrest.model.http.HttpMethod.*;
 import static org.joyrest.utils.PathUtils.getPathParams;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
 
 import org.easymock.EasyMockSupport;
+import org.joyrest.exception.type.RestException;
 import org.joyrest.model.http.HttpMethod;
 import org.joyrest.model.request.InternalRequest;
 import org.joyrest.routing.ControllerConfiguration;
@@ -33,18 +54,44 @@ import org.joyrest.routing.PathCorrector;
 import org.joyrest.routing.matcher.RequestMatcher;
 import org.joyrest.stream.BiStream;
 import org.joyrest.test.unit.annotation.TestedController;
+import org.joyrest.test.unit.batch.BatchResult;
+import org.joyrest.test.unit.batch.CallResult;
+import org.joyrest.test.unit.metrics.LeakDetector;
+import org.joyrest.test.unit.metrics.LeakReport;
+import org.joyrest.test.unit.metrics.Phase;
+import org.joyrest.test.unit.metrics.PhaseMeter;
 import org.joyrest.test.unit.model.MockRequest;
 import org.joyrest.test.unit.model.MockResponse;
+import org.joyrest.test.unit.replay.CaptureFormat;
+import org.joyrest.test.unit.replay.ReplayReport;
+import org.joyrest.test.unit.replay.ReplayRunner;
+import org.joyrest.test.unit.routing.RouteIndex;
+import org.joyrest.test.unit.rule.ControllerClassRule;
 import org.joyrest.test.unit.rule.ControllerRule;
+import org.joyrest.test.unit.stress.StressCall;
+import org.joyrest.test.unit.stress.StressReport;
+import org.joyrest.test.unit.stress.StressRunner;
+import org.joyrest.test.unit.transform.RoundTrip;
+import org.joyrest.test.unit.transform.SerializationStats;
+import org.junit.ClassRule;
 import org.junit.Rule;
 
 public abstract class ControllerUnitTest extends EasyMockSupport {
 
+	@ClassRule
+	public static ControllerClassRule classHolder = new ControllerClassRule();
+
 	@Rule
-	public ControllerRule holder = new ControllerRule(this);
+	public ControllerRule holder = new ControllerRule(this, classHolder);
 
 	private Set<InternalRoute> routes = null;
 
+	private boolean configured = false;
+
+	private boolean routeVerification = false;
+
+	private RoundTrip roundTrip = null;
+
 	private static final PathComparator pathComparator = new PathComparator();
 
 	private static final PathCorrector pathCorrector = new PathCorrector();
@@ -56,25 +103,72 @@ public abstract class ControllerUnitTest extends EasyMockSupport {
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	protected void call(HttpMethod method, String path, MockRequest req, MockResponse resp) {
 		initialize();
+		dispatch(method, path, req, resp);
+	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private InternalRoute dispatch(HttpMethod method, String path, MockRequest req, MockResponse resp) {
 		req.setMethod(method);
 		req.setPath(createPath(holder.getControllerPath(), pathCorrector.apply(path)));
-		InternalRoute route = resolveRoute(routes, req);
+		return dispatch(req, resp);
+	}
+
+	private InternalRoute dispatch(MockRequest<?> req, MockResponse<?> resp) {
+		return dispatch(req, resp, null);
+	}
+
+	/**
+	 * Resolves the route unless it has been already resolved (by a batch), extracts path params and executes the route.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private InternalRoute dispatch(MockRequest req, MockResponse resp, InternalRoute resolved) {
+		if (PhaseMeter.isActive())
+			return dispatchMeasured(req, resp, resolved);
+
+		InternalRoute route = isNull(resolved) ? resolveRoute(routes, req) : resolved;
+		req.setPathParams(getPathParams(route, req.getPathParts()));
+		execute(route, req, resp);
+		return route;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private InternalRoute dispatchMeasured(MockRequest req, MockResponse resp, InternalRoute resolved) {
+		PhaseMeter meter = PhaseMeter.start();
+		InternalRoute route = isNull(resolved) ? resolveRoute(routes, req) : resolved;
+		meter.phase(Phase.RESOLUTION);
 		req.setPathParams(getPathParams(route, req.getPathParts()));
+		meter.phase(Phase.EXTRACTION);
+		execute(route, req, resp);
+		meter.phase(Phase.EXECUTION);
+		meter.finish(route);
+		return route;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void execute(InternalRoute route, MockRequest req, MockResponse resp) {
+		RoundTrip roundTrip = this.roundTrip;
+		if (isNull(roundTrip)) {
+			route.execute(req, resp);
+			return;
+		}
+
+		roundTrip.read(route, req);
 		route.execute(req, resp);
+		roundTrip.write(route, req, resp);
 	}
 
 	public void initialize() {
-		if (!holder.isAnnotationInitialized())
+		if (!holder.isAnnotationInitialized() && !configured) {
+			configured = true;
 			configure();
+		}
 
 		ControllerConfiguration controller = holder.getController();
 		if (isNull(controller))
 			throw new RuntimeException(format("There is no defined any tested controller. Use '%s' annotation " +
 					" on the given test class or setter in 'configure' method.", TestedController.class.getCanonicalName()));
 
-		controller.initialize();
-		routes = controller.getRoutes();
+		routes = holder.getRouteTable().getRoutes(controller, holder.getControllerPath());
 	}
 
 	private static String createPath(String globalPath, String path) {
@@ -91,6 +185,50 @@ public abstract class ControllerUnitTest extends EasyMockSupport {
 	}
 
 	public InternalRoute resolveRoute(Set<InternalRoute> routes, InternalRequest<?> request) {
+		RouteIndex index = holder.getRouteTable().getIndex();
+		if (isNull(index) || routes != this.routes)
+			return scanRoutes(routes, request);
+
+		if (routeVerification)
+			return verifyRoute(index, routes, request);
+
+		return index.resolve(request);
+	}
+
+	private static InternalRoute verifyRoute(RouteIndex index, Set<InternalRoute> routes, InternalRequest<?> request) {
+		InternalRoute indexed = null;
+		RestException indexedException = null;
+		try {
+			indexed = index.resolve(request);
+		} catch (RestException e) {
+			indexedException = e;
+		}
+
+		InternalRoute scanned = null;
+		RestException scannedException = null;
+		try {
+			scanned = scanRoutes(routes, request);
+		} catch (RestException e) {
+			scannedException = e;
+		}
+
+		if (indexed != scanned || !Objects.equals(message(indexedException), message(scannedException)))
+			throw new RuntimeException(format("Indexed route resolution differs from the linear scan for path [%s], " +
+					"method [%s]: indexed '%s', scanned '%s'", request.getPath(), request.getMethod(),
+					isNull(indexedException) ? indexed : message(indexedException),
+					isNull(scannedException) ? scanned : message(scannedException)));
+
+		if (nonNull(scannedException))
+			throw scannedException;
+
+		return scanned;
+	}
+
+	private static String message(Exception e) {
+		return isNull(e) ? null : e.getMessage();
+	}
+
+	private static InternalRoute scanRoutes(Set<InternalRoute> routes, InternalRequest<?> request) {
 		return BiStream.of(routes.stream(), request)
 			.throwIfNull(pathComparator, notFoundSupplier(format(
 					"There is no route suitable for path [%s]",
@@ -135,11 +273,182 @@ public abstract class ControllerUnitTest extends EasyMockSupport {
 		call(DELETE, path, req, resp);
 	}
 
+	protected BatchResult callAll(Iterable<? extends MockRequest<?>> requests) {
+		return callAll(requests, null);
+	}
+
+	/**
+	 * Executes all requests, a method and a path (relative to the controller path) have to be set on every request.
+	 * Requests with the same method and path are resolved only once and requests are executed grouped by their routes,
+	 * in parallel using the given pool if it is not {@code null}. Failures do not stop the batch, they are part of the result.
+	 * The absolute path and path params are set on a request only while it is resolved and executed, hence the same batch
+	 * can be called again. Calls are measured as any other call, the resolution phase covers only a lookup of the route
+	 * resolved for the group.
+	 */
+	protected BatchResult callAll(Iterable<? extends MockRequest<?>> requests, ForkJoinPool pool) {
+		initialize();
+
+		List<MockRequest<?>> batch = new ArrayList<>();
+		requests.forEach(batch::add);
+
+		CallResult[] results = new CallResult[batch.size()];
+		String[] paths = new String[batch.size()];
+		Map<String, Object> resolved = new HashMap<>();
+		Map<InternalRoute, List<Integer>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < batch.size(); i++) {
+			MockRequest<?> req = batch.get(i);
+			String path = createPath(holder.getControllerPath(), pathCorrector.apply(req.getPath()));
+			paths[i] = path;
+
+			Object route = resolved.computeIfAbsent(req.getMethod() + " " + path, key -> {
+				String relativePath = req.getPath();
+				try {
+					req.setPath(path);
+					return resolveRoute(routes, req);
+				} catch (RuntimeException e) {
+					return e;
+				} finally {
+					req.setPath(relativePath);
+				}
+			});
+
+			if (route instanceof RuntimeException)
+				results[i] = CallResult.failed(i, req, null, (RuntimeException) route);
+			else
+				groups.computeIfAbsent((InternalRoute) route, key -> new ArrayList<>()).add(i);
+		}
+
+		List<Runnable> calls = new ArrayList<>(batch.size());
+		groups.forEach((route, indexes) -> indexes.forEach(
+			index -> calls.add(() -> results[index] = execute(index, batch.get(index), paths[index], route))));
+
+		if (isNull(pool))
+			calls.forEach(Runnable::run);
+		else
+			pool.submit(() -> calls.parallelStream().forEach(Runnable::run)).join();
+
+		return new BatchResult(Arrays.asList(results));
+	}
+
+	private CallResult execute(int index, MockRequest<?> req, String path, InternalRoute route) {
+		String relativePath = req.getPath();
+		Map<String, Object> pathParams = req.getPathParams();
+		try {
+			MockResponse<?> resp = new MockResponse<>();
+			req.setPath(path);
+			dispatch(req, resp, route);
+			return CallResult.of(index, req, route, resp);
+		} catch (RuntimeException e) {
+			return CallResult.failed(index, req, route, e);
+		} finally {
+			req.setPath(relativePath);
+			req.setPathParams(pathParams);
+		}
+	}
+
+	protected StressReport stress(int threads, int iterations, Supplier<StressCall> calls) {
+		return stress(threads, iterations, calls, Executors.defaultThreadFactory());
+	}
+
+	/**
+	 * Executes calls from the given number of threads against the one controller instance, every thread executes
+	 * the given number of iterations and every iteration obtains a new call from the supplier. Virtual threads can be
+	 * used by passing their thread factory on Java 21+.
+	 */
+	protected StressReport stress(int threads, int iterations, Supplier<StressCall> calls, ThreadFactory threadFactory) {
+		initialize();
+
+		try {
+			return new StressRunner(threads, iterations, threadFactory)
+				.run(calls, (call, resp) -> dispatch(call.getMethod(), call.getPath(), call.getRequest(), resp));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Stress run has been interrupted.", e);
+		}
+	}
+
+	/**
+	 * Executes calls of the supplier in the given number of phases and reports the retained heap after every phase,
+	 * use {@link LeakReport#assertGrowthAtMost(long)} to fail on a growth. The first phase is a warmup,
+	 * see {@link LeakDetector}. Expectations of used mocks have to allow repeated invocations. As in
+	 * {@link #stress(int, int, Supplier)}, the supplier has to return a new call with a new request every time,
+	 * requests are not reset between iterations.
+	 */
+	protected LeakReport detectLeaks(Supplier<StressCall> calls, int phases, int iterations) {
+		initialize();
+
+		MockResponse<?> resp = new MockResponse<>();
+		return new LeakDetector(phases, iterations).run(() -> {
+			StressCall call = calls.get();
+			resp.reset();
+			dispatch(call.getMethod(), call.getPath(), call.getRequest(), resp);
+			if (!call.getExpectation().test(resp))
+				throw new AssertionError(format("Unexpected response of [%s], status: %s", call, resp.getStatus()));
+		});
+	}
+
+	protected ReplayReport replay(Path capture, CaptureFormat format, int parallelism) {
+		try (BufferedReader reader = Files.newBufferedReader(capture, StandardCharsets.UTF_8)) {
+			return replay(reader, format, parallelism);
+		} catch (IOException e) {
+			throw new UncheckedIOException(format("Capture '%s' cannot be read.", capture), e);
+		}
+	}
+
+	/**
+	 * Streams captured requests through the controller using the given number of threads. Paths in the capture
+	 * are full paths as they were received by the server, including the controller path. The capture is read
+	 * incrementally, so its size is not limited by the heap.
+	 */
+	protected ReplayReport replay(Reader capture, CaptureFormat format, int parallelism) {
+		initialize();
+
+		BufferedReader reader = capture instanceof BufferedReader ? (BufferedReader) capture : new BufferedReader(capture);
+		try {
+			return new ReplayRunner(parallelism, Executors.defaultThreadFactory())
+				.run(reader, format, (req, resp) -> {
+					req.setPath(pathCorrector.apply(req.getPath()));
+					return dispatch(req, resp);
+				});
+		} catch (IOException e) {
+			throw new UncheckedIOException("Capture cannot be read.", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Replay has been interrupted.", e);
+		}
+	}
+
 	public void setGlobalPath(String globalPath) {
 		this.holder.setControllerPath(pathCorrector.apply(globalPath));
+		this.holder.getRouteTable().invalidate();
 	}
 
 	public void setController(ControllerConfiguration controller) {
 		this.holder.setController(controller);
+		this.holder.getRouteTable().invalidate();
+	}
+
+	public void setRouteVerification(boolean routeVerification) {
+		this.routeVerification = routeVerification;
+	}
+
+	/**
+	 * Runs request bodies through readers and response entities through writers of routes according to
+	 * the content type and accepted media types of requests. Response bodies are written into
+	 * {@link MockResponse#getOutputStream()}.
+	 */
+	public void setSerialization(boolean serialization) {
+		this.roundTrip = serialization ? new RoundTrip() : null;
+	}
+
+	/**
+	 * Returns sizes and durations of serialization per route, empty if the serialization is not enabled.
+	 */
+	public Map<String, SerializationStats> getSerializationStats() {
+		return isNull(roundTrip) ? Collections.emptyMap() : roundTrip.getStats();
+	}
+
+	public long getAvoidedInitializations() {
+		return holder.getRouteTable().getAvoidedInitializations();
 	}
 }
@@ -17,15 +17,19 @@ package org.joyrest.test.unit;
 
 import static java.lang.String.format;
 import static java.util.Objects.isNull;
-import static java.util.stream.Collectors.toMap;
 
-import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.Executors;
 
 import org.easymock.EasyMockSupport;
 import org.joyrest.exception.configuration.ExceptionConfiguration;
 import org.joyrest.exception.handler.InternalExceptionHandler;
 import org.joyrest.test.unit.annotation.TestedExceptionHandler;
+import org.joyrest.test.unit.handler.ExceptionBenchmark;
+import org.joyrest.test.unit.handler.ExceptionReport;
+import org.joyrest.test.unit.handler.ExceptionScenario;
+import org.joyrest.test.unit.handler.HandlerTable;
+import org.joyrest.test.unit.metrics.Phase;
+import org.joyrest.test.unit.metrics.PhaseMeter;
 import org.joyrest.test.unit.model.MockRequest;
 import org.joyrest.test.unit.model.MockResponse;
 import org.joyrest.test.unit.rule.HandlerRule;
@@ -36,7 +40,9 @@ public abstract class HandlerUnitTest extends EasyMockSupport {
 	@Rule
 	public HandlerRule holder = new HandlerRule(this);
 
-	private Map<Class<? extends Exception>, InternalExceptionHandler> handlers = null;
+	private final HandlerTable handlerTable = new HandlerTable();
+
+	private boolean configured = false;
 
 	public void configure() {
 
@@ -46,27 +52,37 @@ public abstract class HandlerUnitTest extends EasyMockSupport {
 	protected void call(Class<?> clazz, MockRequest req, MockResponse resp, Exception ex) {
 		initialize();
 
+		if (PhaseMeter.isActive()) {
+			PhaseMeter meter = PhaseMeter.start();
+			InternalExceptionHandler handler = resolveHandler(clazz);
+			meter.phase(Phase.RESOLUTION);
+			handler.execute(req, resp, ex);
+			meter.phase(Phase.EXECUTION);
+			meter.finish(null);
+			return;
+		}
+
 		InternalExceptionHandler handler = resolveHandler(clazz);
 		handler.execute(req, resp, ex);
 	}
 
 	public void initialize() {
-		if (!holder.isAnnotationInitialized())
+		if (!holder.isAnnotationInitialized() && !configured) {
+			configured = true;
 			configure();
+		}
 
 		ExceptionConfiguration configuration = holder.getConfiguration();
 		if (isNull(configuration))
 			throw new RuntimeException(format("There is no defined any tested configuration. Use '%s' annotation " +
 				" on the given test class or setter in 'configure' method.", TestedExceptionHandler.class.getCanonicalName()));
 
-		configuration.initialize();
-		handlers = configuration.getExceptionHandlers().stream()
-			.collect(toMap(InternalExceptionHandler::getExceptionClass, Function.identity()));
+		handlerTable.initialize(configuration);
 	}
 
 	public InternalExceptionHandler resolveHandler(Class<?> clazz) {
-		InternalExceptionHandler handler = handlers.get(clazz);
-		
+		InternalExceptionHandler handler = handlerTable.resolve(clazz);
+
 		if (isNull(handler))
 			throw new RuntimeException(format("There is no defined handler with class '%s'", clazz));
 
@@ -81,7 +97,29 @@ public abstract class HandlerUnitTest extends EasyMockSupport {
 		call(clazz, req, resp, ex);
 	}
 
+	protected ExceptionReport benchmark(ExceptionScenario<?> scenario, int warmup, int iterations) {
+		return benchmark(scenario, 1, warmup, iterations);
+	}
+
+	/**
+	 * Repeatedly creates exceptions of the scenario and passes them to the handler resolved for their type,
+	 * on the given number of threads at once. Expectations of used mocks have to allow repeated invocations.
+	 */
+	protected ExceptionReport benchmark(ExceptionScenario<?> scenario, int threads, int warmup, int iterations) {
+		initialize();
+		InternalExceptionHandler handler = resolveHandler(scenario.getType());
+
+		try {
+			return new ExceptionBenchmark(threads, warmup, iterations, Executors.defaultThreadFactory())
+				.run(scenario, handler);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Exception benchmark has been interrupted.", e);
+		}
+	}
+
 	public void setConfiguration(ExceptionConfiguration configuration) {
 		this.holder.setConfiguration(configuration);
+		this.handlerTable.invalidate();
 	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated test method repeatedly and fails if the measured latency percentile exceeds the budget.
+ * Budgets are durations with a unit, e.g. {@code "500us"} or {@code "2ms"}, an empty budget is not checked.
+ * Mocks are reset between runs, hence the test method has to record its expectations itself.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LatencyBudget {
+
+	String p50() default "";
+
+	String p99() default "";
+
+	String p999() default "";
+
+	String max() default "";
+
+	int warmup() default 1000;
+
+	int iterations() default 10000;
+
+}
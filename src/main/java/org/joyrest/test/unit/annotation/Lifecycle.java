@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.annotation;
+
+public enum Lifecycle {
+
+	/**
+	 * Tested class is instantiated and initialized for every test method.
+	 */
+	PER_METHOD,
+
+	/**
+	 * Tested class and its routes are created only once per test class, mocks are re-created
+	 * and injected into the shared instance for every test method.
+	 */
+	PER_CLASS
+
+}
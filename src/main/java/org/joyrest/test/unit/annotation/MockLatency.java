@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Adds latency and failures to the answers of a {@link org.easymock.Mock} injected into the tested subject,
+ * the mock in the test field stays untouched for recording expectations. Latency is either fixed, uniform between
+ * min and max, or replayed from a classpath resource with one recorded duration per line. Durations have a unit,
+ * e.g. {@code "500us"} or {@code "2ms"}. Only interfaces can be wrapped.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface MockLatency {
+
+	String fixed() default "";
+
+	String min() default "";
+
+	String max() default "";
+
+	String histogram() default "";
+
+	double failureProbability() default 0;
+
+}
@@ -30,4 +30,6 @@ public @interface TestedController {
 
 	String controllerPath() default "";
 
+	Lifecycle lifecycle() default Lifecycle.PER_METHOD;
+
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.assertion;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verdicts of element classes of one collection assertion. Elements of a collection mostly share one runtime class,
+ * hence the last accepted class is checked first and other verdicts are cached. Can be used from several threads.
+ */
+final class ElementVerdicts {
+
+	private final Class<?> expected;
+
+	private final Map<Class<?>, Boolean> verdicts = new ConcurrentHashMap<>();
+
+	private volatile Class<?> lastAccepted;
+
+	ElementVerdicts(Class<?> expected) {
+		this.expected = expected;
+	}
+
+	void check(Object element) {
+		Class<?> clazz = element.getClass();
+		if (clazz == lastAccepted)
+			return;
+
+		if (!verdicts.computeIfAbsent(clazz, expected::isAssignableFrom))
+			throw new ClassCastException(
+				format("Object in a given collection cannot be cast from '%s' to the expected class '%s'",
+					clazz.getCanonicalName(), expected.getCanonicalName()));
+
+		lastAccepted = clazz;
+	}
+
+}
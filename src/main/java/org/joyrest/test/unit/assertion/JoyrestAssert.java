@@ -20,12 +20,115 @@ import static java.util.Objects.requireNonNull;
 
 import org.joyrest.routing.entity.CollectionType;
 import org.joyrest.routing.entity.Type;
+import org.joyrest.test.unit.body.CapturingOutputStream;
+import org.joyrest.test.unit.body.GeneratedBody;
+import org.joyrest.test.unit.metrics.AllocationMeasurement;
+import org.joyrest.test.unit.metrics.HeapProbe;
+import org.joyrest.test.unit.model.MockResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class JoyrestAssert {
 
+	private static final int ALLOCATION_WARMUP = 1_000;
+
+	private static final int ALLOCATION_ITERATIONS = 100;
+
+	private static final long HEAP_PROBE_INTERVAL = 16 * 1024 * 1024;
+
+	private static final int PARALLEL_THRESHOLD = 100_000;
+
+	/**
+	 * Asserts that the given call allocates at most the given number of bytes on average. The call is repeated
+	 * during warmup and measurement, hence expectations of used mocks have to allow repeated invocations.
+	 */
+	public static void assertAllocatesAtMost(long bytes, Runnable call) {
+		assertAllocatesAtMost(bytes, ALLOCATION_WARMUP, ALLOCATION_ITERATIONS, call);
+	}
+
+	public static void assertAllocatesAtMost(long bytes, int warmup, int iterations, Runnable call) {
+		requireNonNull(call, "Call cannot be null.");
+
+		AllocationMeasurement measurement = AllocationMeasurement.measure(call, warmup, iterations);
+		if (measurement.getBytes() > bytes)
+			throw new AssertionError(
+				format("Call allocates more than the expected %d bytes: %s", bytes, measurement));
+	}
+
+	/**
+	 * Asserts that the live heap does not grow by more than the given number of bytes while the call consumes
+	 * the generated body. The heap is sampled every 16 MB of the body and at its end.
+	 */
+	public static void assertPeakHeapAtMost(long bytes, GeneratedBody body, Runnable call) {
+		assertPeakHeapAtMost(bytes, HEAP_PROBE_INTERVAL, body, call);
+	}
+
+	public static void assertPeakHeapAtMost(long bytes, long interval, GeneratedBody body, Runnable call) {
+		requireNonNull(body, "Body cannot be null.");
+		requireNonNull(call, "Call cannot be null.");
+
+		HeapProbe probe = HeapProbe.start();
+		body.probe(probe, interval);
+		try {
+			call.run();
+		} finally {
+			body.probe(null, 0);
+		}
+
+		if (probe.getSamples() == 0)
+			throw new AssertionError("Generated body has not been consumed by the call.");
+
+		if (probe.getPeakGrowth() > bytes)
+			throw new AssertionError(
+				format("Heap grows by more than the expected %d bytes while consuming the body: %s", bytes, probe));
+	}
+
+	/**
+	 * Compares the body captured by the response with the golden file chunk by chunk.
+	 */
+	public static void assertBody(Path expected, MockResponse<?> response) {
+		requireNonNull(expected, "Expected file cannot be null.");
+
+		try (InputStream stream = Files.newInputStream(expected)) {
+			assertBody(stream, response);
+		} catch (IOException e) {
+			throw new UncheckedIOException(format("Golden file '%s' cannot be read.", expected), e);
+		}
+	}
+
+	public static void assertBody(InputStream expected, MockResponse<?> response) {
+		requireNonNull(response, "Response cannot be null.");
+
+		try {
+			long offset = response.getCapture().mismatch(expected);
+			if (offset >= 0)
+				throw new AssertionError(
+					format("Response body differs from the expected body at the offset %d.", offset));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Expected body cannot be read.", e);
+		}
+	}
+
+	/**
+	 * Asserts the checksum of the captured body, works also for a discarding capture.
+	 */
+	public static void assertBodyChecksum(long expected, MockResponse<?> response) {
+		requireNonNull(response, "Response cannot be null.");
+
+		CapturingOutputStream capture = response.getCapture();
+		if (capture.getChecksum() != expected)
+			throw new AssertionError(format("Response body of %d bytes has checksum %d, expected %d.",
+				capture.size(), capture.getChecksum(), expected));
+	}
+
 	public static void assertType(Type<?> expected, Object entity) {
 		assertType(expected.getType(), entity);
 	}
@@ -43,6 +146,11 @@ public class JoyrestAssert {
 					type.getClass().getCanonicalName(), expected.getCanonicalName()));
 	}
 
+	/**
+	 * Asserts the container type and types of all elements of a collection. A {@link Stream} or an {@link Iterator}
+	 * can be passed instead of the collection, only its elements are checked then and the entity is consumed.
+	 * Large collections are checked in parallel.
+	 */
 	public static void assertType(CollectionType<?> expected, Object entity) {
 		requireNonNull(entity, "Entity cannot be null.");
 		requireNonNull(expected, "Expected type cannot be null.");
@@ -51,17 +159,27 @@ public class JoyrestAssert {
 		if (entity instanceof Optional)
 			type = ((Optional<?>) entity).get();
 
-		Class<?> expectedType = expected.getType();
-		Class<?> expectedParam = expected.getParam();
+		ElementVerdicts verdicts = new ElementVerdicts(expected.getParam());
+		if (type instanceof Stream) {
+			((Stream<?>) type).forEach(verdicts::check);
+			return;
+		}
 
-		expectedType.isAssignableFrom(type.getClass());
+		if (type instanceof Iterator) {
+			((Iterator<?>) type).forEachRemaining(verdicts::check);
+			return;
+		}
+
+		Class<?> expectedType = expected.getType();
+		if (!expectedType.isAssignableFrom(type.getClass()))
+			throw new ClassCastException(
+				format("Object cannot be cast from '%s' to the expected collection class '%s'",
+					type.getClass().getCanonicalName(), expectedType.getCanonicalName()));
 
-		@SuppressWarnings("unchecked")
-		Collection<Object> collection = (Collection<Object>) type;
-		for (Object object: collection)
-			if (!expectedParam.isAssignableFrom(object.getClass()))
-				throw new ClassCastException(
-					format("Object in a given collection cannot be cast from '%s' to the expected class '%s'",
-						object.getClass().getCanonicalName(), expectedParam.getCanonicalName()));
+		Collection<?> collection = (Collection<?>) type;
+		if (collection.size() >= PARALLEL_THRESHOLD)
+			collection.parallelStream().forEach(verdicts::check);
+		else
+			collection.forEach(verdicts::check);
 	}
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.batch;
+
+import static java.lang.String.format;
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.joyrest.model.http.HttpStatus;
+
+/**
+ * Results of a batch of requests ordered in the same way as the requests were passed.
+ */
+public final class BatchResult {
+
+	private static final int MAX_REPORTED_RESULTS = 10;
+
+	private final List<CallResult> results;
+
+	public BatchResult(List<CallResult> results) {
+		this.results = Collections.unmodifiableList(results);
+	}
+
+	public Stream<CallResult> stream() {
+		return results.stream();
+	}
+
+	public List<CallResult> getResults() {
+		return results;
+	}
+
+	public int size() {
+		return results.size();
+	}
+
+	public List<CallResult> getFailures() {
+		return results.stream()
+			.filter(CallResult::isFailed)
+			.collect(toList());
+	}
+
+	/**
+	 * Counts successful calls by their status, calls whose response has no status are not counted.
+	 */
+	public Map<HttpStatus, Long> countByStatus() {
+		return results.stream()
+			.filter(result -> !result.isFailed() && nonNull(result.getStatus()))
+			.collect(groupingBy(CallResult::getStatus, counting()));
+	}
+
+	public Map<String, Long> countByRoute() {
+		return results.stream()
+			.collect(groupingBy(result -> result.getRoute()
+				.map(route -> route.getHttpMethod() + " " + route.getPath())
+				.orElse("unresolved"), counting()));
+	}
+
+	public BatchResult assertNoFailures() {
+		return assertAll(result -> !result.isFailed(), "Requests failed");
+	}
+
+	public BatchResult assertStatus(HttpStatus status) {
+		return assertAll(result -> !result.isFailed() && result.getStatus() == status,
+			format("Requests did not end with status '%s'", status));
+	}
+
+	public BatchResult assertAll(Predicate<CallResult> expectation, String message) {
+		List<CallResult> unexpected = results.stream()
+			.filter(expectation.negate())
+			.collect(toList());
+
+		if (!unexpected.isEmpty())
+			throw new AssertionError(format("%s: %d of %d, e.g. %s", message, unexpected.size(), results.size(),
+				unexpected.subList(0, Math.min(MAX_REPORTED_RESULTS, unexpected.size()))));
+
+		return this;
+	}
+}
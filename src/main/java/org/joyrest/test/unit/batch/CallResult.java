@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.batch;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.joyrest.model.http.HeaderName;
+import org.joyrest.model.http.HttpStatus;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+
+/**
+ * Result of one request executed in a batch, contains either a response or an exception thrown during
+ * the route resolution or execution.
+ */
+public final class CallResult {
+
+	private final int index;
+
+	private final MockRequest<?> request;
+
+	private final InternalRoute route;
+
+	private final MockResponse<?> response;
+
+	private final RuntimeException failure;
+
+	private CallResult(int index, MockRequest<?> request, InternalRoute route, MockResponse<?> response,
+			RuntimeException failure) {
+		this.index = index;
+		this.request = request;
+		this.route = route;
+		this.response = response;
+		this.failure = failure;
+	}
+
+	public static CallResult of(int index, MockRequest<?> request, InternalRoute route, MockResponse<?> response) {
+		return new CallResult(index, request, route, response, null);
+	}
+
+	public static CallResult failed(int index, MockRequest<?> request, InternalRoute route, RuntimeException failure) {
+		return new CallResult(index, request, route, null, failure);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public MockRequest<?> getRequest() {
+		return request;
+	}
+
+	public Optional<InternalRoute> getRoute() {
+		return Optional.ofNullable(route);
+	}
+
+	public boolean isFailed() {
+		return nonNull(failure);
+	}
+
+	public Optional<RuntimeException> getFailure() {
+		return Optional.ofNullable(failure);
+	}
+
+	public HttpStatus getStatus() {
+		return isNull(response) ? null : response.getStatus();
+	}
+
+	public Map<HeaderName, String> getHeaders() {
+		return isNull(response) ? null : response.getHeaders();
+	}
+
+	public Optional<?> getEntity() {
+		return isNull(response) ? Optional.empty() : response.getEntity();
+	}
+
+	public MockResponse<?> getResponse() {
+		return response;
+	}
+
+	@Override
+	public String toString() {
+		String call = request.getMethod() + " " + request.getPath();
+		if (isFailed())
+			return "#" + index + " " + call + " failed: " + failure;
+
+		return "#" + index + " " + call + " -> " + getStatus();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Body backed by a read-only buffer which is shared by all streams opened from the body, the bytes are never
+ * copied. The body can be shared between threads.
+ */
+public final class ByteBufferBody implements RequestBody {
+
+	private final ByteBuffer buffer;
+
+	private ByteBufferBody(ByteBuffer buffer) {
+		this.buffer = buffer.asReadOnlyBuffer();
+	}
+
+	public static ByteBufferBody of(ByteBuffer buffer) {
+		return new ByteBufferBody(buffer);
+	}
+
+	public static ByteBufferBody of(byte[] bytes) {
+		return new ByteBufferBody(ByteBuffer.wrap(bytes));
+	}
+
+	public static ByteBufferBody of(String content) {
+		return of(content, StandardCharsets.UTF_8);
+	}
+
+	public static ByteBufferBody of(String content, Charset charset) {
+		return of(content.getBytes(charset));
+	}
+
+	/**
+	 * Maps the whole file into memory, the mapping stays valid after the channel is closed and is released
+	 * together with the body.
+	 */
+	public static ByteBufferBody map(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new ByteBufferBody(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(format("Fixture file '%s' cannot be mapped.", file), e);
+		}
+	}
+
+	/**
+	 * Maps a resource from the classpath, the resource has to be a regular file.
+	 */
+	public static ByteBufferBody mapResource(String name) {
+		try {
+			URL resource = Thread.currentThread().getContextClassLoader().getResource(name);
+			if (isNull(resource))
+				throw new RuntimeException(format("Fixture resource '%s' does not exist.", name));
+
+			Path file = Paths.get(resource.toURI());
+			if (!Files.isRegularFile(file))
+				throw new RuntimeException(format("Fixture resource '%s' is not a regular file.", name));
+
+			return map(file);
+		} catch (URISyntaxException | FileSystemNotFoundException e) {
+			throw new RuntimeException(format("Fixture resource '%s' is not a regular file.", name), e);
+		}
+	}
+
+	@Override
+	public InputStream open() {
+		return new ByteBufferInputStream(buffer);
+	}
+
+	public int size() {
+		return buffer.remaining();
+	}
+
+	/**
+	 * Returns a new read-only view of the body, the view's position is independent on other views.
+	 */
+	public ByteBuffer asBuffer() {
+		return buffer.duplicate();
+	}
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Output stream capturing a response body into pooled chunks. The stream can be limited by a cap, writing
+ * over the cap fails with {@link IOException}. In the discarding mode only the number of bytes and
+ * the checksum are kept. The checksum is computed incrementally while the body is written.
+ */
+public final class CapturingOutputStream extends OutputStream {
+
+	private final List<byte[]> chunks = new ArrayList<>();
+
+	private long cap = Long.MAX_VALUE;
+
+	private boolean discard = false;
+
+	private Supplier<Checksum> checksumFactory = CRC32::new;
+
+	private Checksum checksum = checksumFactory.get();
+
+	private long count = 0;
+
+	public CapturingOutputStream cap(long bytes) {
+		this.cap = bytes;
+		return this;
+	}
+
+	public CapturingOutputStream discard(boolean discard) {
+		this.discard = discard;
+		return this;
+	}
+
+	/**
+	 * Replaces the default {@link CRC32} with another checksum, the content captured so far is cleared.
+	 */
+	public CapturingOutputStream checksum(Supplier<Checksum> checksumFactory) {
+		this.checksumFactory = requireNonNull(checksumFactory, "Checksum cannot be null.");
+		return reset();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureCapacity(1);
+		checksum.update(b);
+		if (!discard) {
+			int offset = (int) (count % ChunkPool.CHUNK_SIZE);
+			if (offset == 0)
+				chunks.add(ChunkPool.acquire());
+			chunks.get(chunks.size() - 1)[offset] = (byte) b;
+		}
+		count++;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		ensureCapacity(length);
+		checksum.update(bytes, offset, length);
+		if (discard) {
+			count += length;
+			return;
+		}
+
+		while (length > 0) {
+			int chunkOffset = (int) (count % ChunkPool.CHUNK_SIZE);
+			if (chunkOffset == 0)
+				chunks.add(ChunkPool.acquire());
+
+			int written = Math.min(length, ChunkPool.CHUNK_SIZE - chunkOffset);
+			System.arraycopy(bytes, offset, chunks.get(chunks.size() - 1), chunkOffset, written);
+			offset += written;
+			length -= written;
+			count += written;
+		}
+	}
+
+	private void ensureCapacity(int length) throws IOException {
+		if (count + length > cap)
+			throw new IOException(format("Response body exceeds the cap of %d bytes.", cap));
+	}
+
+	/**
+	 * Clears the captured content and returns its chunks into the pool, the configuration is kept.
+	 */
+	public CapturingOutputStream reset() {
+		for (byte[] chunk: chunks)
+			ChunkPool.release(chunk);
+		chunks.clear();
+		checksum = checksumFactory.get();
+		count = 0;
+		return this;
+	}
+
+	public long size() {
+		return count;
+	}
+
+	public long getChecksum() {
+		return checksum.getValue();
+	}
+
+	public boolean isDiscarding() {
+		return discard;
+	}
+
+	/**
+	 * Returns a stream over the captured chunks, the content is not copied.
+	 */
+	public InputStream getInputStream() {
+		if (discard)
+			throw new IllegalStateException("Content of a discarding stream is not captured.");
+
+		return new ChunkInputStream(chunks, count);
+	}
+
+	public byte[] toByteArray() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream((int) Math.min(count, Integer.MAX_VALUE));
+		forEachChunk(output::write);
+		return output.toByteArray();
+	}
+
+	public String toString(Charset charset) {
+		return new String(toByteArray(), charset);
+	}
+
+	/**
+	 * Returns offset of the first byte which differs from the expected content, or {@code -1} if the contents
+	 * are equal. The expected content is read chunk by chunk.
+	 */
+	public long mismatch(InputStream expected) throws IOException {
+		byte[] expectedChunk = new byte[ChunkPool.CHUNK_SIZE];
+		byte[] actualChunk = new byte[ChunkPool.CHUNK_SIZE];
+		long offset = 0;
+		try (InputStream actual = getInputStream()) {
+			while (true) {
+				int expectedLength = fill(expected, expectedChunk);
+				int actualLength = fill(actual, actualChunk);
+
+				int length = Math.min(expectedLength, actualLength);
+				for (int i = 0; i < length; i++)
+					if (expectedChunk[i] != actualChunk[i])
+						return offset + i;
+
+				if (expectedLength != actualLength)
+					return offset + length;
+
+				if (length == 0)
+					return -1;
+
+				offset += length;
+			}
+		}
+	}
+
+	private static int fill(InputStream stream, byte[] buffer) throws IOException {
+		int total = 0;
+		int read;
+		while (total < buffer.length && (read = stream.read(buffer, total, buffer.length - total)) != -1)
+			total += read;
+		return total;
+	}
+
+	private void forEachChunk(ChunkConsumer consumer) {
+		long remaining = count;
+		for (byte[] chunk: chunks) {
+			int length = (int) Math.min(remaining, chunk.length);
+			consumer.accept(chunk, 0, length);
+			remaining -= length;
+		}
+	}
+
+	@FunctionalInterface
+	private interface ChunkConsumer {
+		void accept(byte[] chunk, int offset, int length);
+	}
+
+	private static final class ChunkInputStream extends InputStream {
+
+		private final List<byte[]> chunks;
+
+		private final long size;
+
+		private long position = 0;
+
+		private ChunkInputStream(List<byte[]> chunks, long size) {
+			this.chunks = chunks;
+			this.size = size;
+		}
+
+		@Override
+		public int read() {
+			if (position >= size)
+				return -1;
+
+			byte b = chunks.get((int) (position / ChunkPool.CHUNK_SIZE))[(int) (position % ChunkPool.CHUNK_SIZE)];
+			position++;
+			return b & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0)
+				return 0;
+
+			if (position >= size)
+				return -1;
+
+			int chunkOffset = (int) (position % ChunkPool.CHUNK_SIZE);
+			int count = (int) Math.min(Math.min(length, ChunkPool.CHUNK_SIZE - chunkOffset), size - position);
+			System.arraycopy(chunks.get((int) (position / ChunkPool.CHUNK_SIZE)), chunkOffset, bytes, offset, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return (int) Math.min(size - position, Integer.MAX_VALUE);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import static java.util.Objects.nonNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pool of fixed-size chunks, the pool keeps at most {@link #MAX_POOLED} chunks and the rest is left
+ * to the garbage collector.
+ */
+final class ChunkPool {
+
+	static final int CHUNK_SIZE = 8192;
+
+	private static final int MAX_POOLED = 1024;
+
+	private static final Queue<byte[]> CHUNKS = new ConcurrentLinkedQueue<>();
+
+	private static final AtomicInteger POOLED = new AtomicInteger();
+
+	private ChunkPool() {
+	}
+
+	static byte[] acquire() {
+		byte[] chunk = CHUNKS.poll();
+		if (nonNull(chunk)) {
+			POOLED.decrementAndGet();
+			return chunk;
+		}
+		return new byte[CHUNK_SIZE];
+	}
+
+	static void release(byte[] chunk) {
+		if (POOLED.incrementAndGet() <= MAX_POOLED) {
+			CHUNKS.offer(chunk);
+		} else {
+			POOLED.decrementAndGet();
+		}
+	}
+
+}
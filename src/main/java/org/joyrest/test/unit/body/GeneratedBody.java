@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.InputStream;
+
+import org.joyrest.test.unit.metrics.HeapProbe;
+
+/**
+ * Body whose bytes are generated record by record only when they are read, hence its size is not limited
+ * by the heap. Generation stops after the given number of records or once the body reaches the given size,
+ * the last record and the suffix are always completed so the body can exceed the size slightly.
+ */
+public final class GeneratedBody implements RequestBody {
+
+	private final String prefix;
+
+	private final String separator;
+
+	private final String suffix;
+
+	private final RecordGenerator generator;
+
+	private long records = Long.MAX_VALUE;
+
+	private long size = Long.MAX_VALUE;
+
+	private long seed = 0;
+
+	private volatile HeapProbe probe;
+
+	private long probeInterval;
+
+	private GeneratedBody(String prefix, String separator, String suffix, RecordGenerator generator) {
+		this.prefix = prefix;
+		this.separator = separator;
+		this.suffix = suffix;
+		this.generator = requireNonNull(generator, "Generator cannot be null.");
+	}
+
+	public static GeneratedBody of(RecordGenerator generator) {
+		return new GeneratedBody("", "", "", generator);
+	}
+
+	public static GeneratedBody of(String prefix, String separator, String suffix, RecordGenerator generator) {
+		return new GeneratedBody(prefix, separator, suffix, generator);
+	}
+
+	public static GeneratedBody jsonArray(String element) {
+		return jsonArray((index, random, record) -> record.append(element));
+	}
+
+	public static GeneratedBody jsonArray(RecordGenerator element) {
+		return new GeneratedBody("[", ",", "]", element);
+	}
+
+	public static GeneratedBody ndjson(RecordGenerator line) {
+		return new GeneratedBody("", "\n", "\n", line);
+	}
+
+	public static GeneratedBody csv(String header, RecordGenerator row) {
+		return new GeneratedBody(header + "\n", "\n", "\n", row);
+	}
+
+	public GeneratedBody records(long records) {
+		this.records = records;
+		return this;
+	}
+
+	public GeneratedBody size(long bytes) {
+		this.size = bytes;
+		return this;
+	}
+
+	public GeneratedBody seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Samples the given probe every time the given number of bytes is read from a stream of the body
+	 * and at the end of the stream, {@code null} stops sampling.
+	 */
+	public GeneratedBody probe(HeapProbe probe, long interval) {
+		this.probeInterval = interval;
+		this.probe = probe;
+		return this;
+	}
+
+	@Override
+	public InputStream open() {
+		if (records == Long.MAX_VALUE && size == Long.MAX_VALUE)
+			throw new IllegalStateException("Number of records or size of the generated body has to be limited.");
+
+		return new GeneratedInputStream(this);
+	}
+
+	String getPrefix() {
+		return prefix;
+	}
+
+	String getSeparator() {
+		return separator;
+	}
+
+	String getSuffix() {
+		return suffix;
+	}
+
+	RecordGenerator getGenerator() {
+		return generator;
+	}
+
+	long getRecords() {
+		return records;
+	}
+
+	long getSize() {
+		return size;
+	}
+
+	long getSeed() {
+		return seed;
+	}
+
+	HeapProbe getProbe() {
+		return probe;
+	}
+
+	long getProbeInterval() {
+		return probeInterval;
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import static java.util.Objects.nonNull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.joyrest.test.unit.metrics.HeapProbe;
+
+final class GeneratedInputStream extends InputStream {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final int PREFIX = 0, RECORDS = 1, SUFFIX = 2, END = 3;
+
+	private final GeneratedBody body;
+
+	private final Random random;
+
+	private final StringBuilder record = new StringBuilder();
+
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	private CharBuffer pending = CharBuffer.allocate(0);
+
+	private int state = PREFIX;
+
+	private long index = 0;
+
+	private long produced = 0;
+
+	private long nextProbe;
+
+	private boolean exhausted = false;
+
+	GeneratedInputStream(GeneratedBody body) {
+		this.body = body;
+		this.random = new Random(body.getSeed());
+		this.nextProbe = body.getProbeInterval();
+		this.buffer.flip();
+	}
+
+	@Override
+	public int read() {
+		if (!buffer.hasRemaining() && !fill())
+			return -1;
+
+		return buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) {
+		if (length == 0)
+			return 0;
+
+		if (!buffer.hasRemaining() && !fill())
+			return -1;
+
+		int count = Math.min(length, buffer.remaining());
+		buffer.get(bytes, offset, count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	private boolean fill() {
+		// the heap is sampled only once at the end, readers often poll the end repeatedly
+		if (exhausted)
+			return false;
+
+		buffer.clear();
+		while (buffer.hasRemaining()) {
+			if (pending.hasRemaining()) {
+				if (encoder.encode(pending, buffer, true).isOverflow())
+					break;
+			} else if (!next()) {
+				break;
+			}
+		}
+		buffer.flip();
+		produced += buffer.remaining();
+		exhausted = !buffer.hasRemaining();
+
+		HeapProbe probe = body.getProbe();
+		if (nonNull(probe)) {
+			if (exhausted) {
+				probe.sample();
+			} else if (produced >= nextProbe) {
+				probe.sample();
+				nextProbe = produced + body.getProbeInterval();
+			}
+		}
+		return !exhausted;
+	}
+
+	private boolean next() {
+		record.setLength(0);
+		switch (state) {
+			case PREFIX:
+				record.append(body.getPrefix());
+				state = RECORDS;
+				break;
+			case RECORDS:
+				if (index >= body.getRecords() || produced + buffer.position() >= body.getSize()) {
+					record.append(body.getSuffix());
+					state = SUFFIX;
+				} else {
+					if (index > 0)
+						record.append(body.getSeparator());
+					body.getGenerator().generate(index++, random, record);
+				}
+				break;
+			case SUFFIX:
+				state = END;
+				return false;
+			default:
+				return false;
+		}
+
+		encoder.reset();
+		pending = CharBuffer.wrap(record);
+		return true;
+	}
+
+}
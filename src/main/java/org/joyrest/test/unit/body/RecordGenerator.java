@@ -0,0 +1,29 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import java.util.Random;
+
+/**
+ * Appends one record of a generated body, the random is seeded per opened stream so the same body always
+ * produces the same bytes.
+ */
+@FunctionalInterface
+public interface RecordGenerator {
+
+	void generate(long index, Random random, StringBuilder record);
+
+}
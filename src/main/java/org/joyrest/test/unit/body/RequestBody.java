@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Source of a request body, every call of {@link #open()} returns a fresh stream which starts at the beginning
+ * of the body.
+ */
+@FunctionalInterface
+public interface RequestBody {
+
+	InputStream open() throws IOException;
+
+}
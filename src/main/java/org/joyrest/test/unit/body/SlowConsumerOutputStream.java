@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.body;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Output stream simulating a slow client. The client reads with the given bandwidth from a socket buffer
+ * of the given size, a writer is blocked whenever the buffer is full. Stalls block the writer after every given
+ * number of bytes, and the client can disconnect after the given number of bytes. Time spent blocked in writes
+ * is measured.
+ */
+public final class SlowConsumerOutputStream extends OutputStream {
+
+	private final OutputStream delegate;
+
+	private long bytesPerSecond = Long.MAX_VALUE;
+
+	private long bufferSize = 0;
+
+	private long stallEvery = Long.MAX_VALUE;
+
+	private long stallNanos = 0;
+
+	private long disconnectAfter = Long.MAX_VALUE;
+
+	private long start = -1;
+
+	private long written = 0;
+
+	private long nextStall = Long.MAX_VALUE;
+
+	private long blockedNanos = 0;
+
+	public SlowConsumerOutputStream(OutputStream delegate) {
+		this.delegate = requireNonNull(delegate, "Delegate stream cannot be null.");
+	}
+
+	public SlowConsumerOutputStream bandwidth(long bytesPerSecond) {
+		if (bytesPerSecond <= 0)
+			throw new IllegalArgumentException(format("Bandwidth must be positive, given %d bytes per second.", bytesPerSecond));
+
+		this.bytesPerSecond = bytesPerSecond;
+		return this;
+	}
+
+	/**
+	 * Number of bytes the writer can write ahead of the client before it gets blocked.
+	 */
+	public SlowConsumerOutputStream buffer(long bytes) {
+		if (bytes < 0)
+			throw new IllegalArgumentException(format("Buffer size cannot be negative, given %d bytes.", bytes));
+
+		this.bufferSize = bytes;
+		return this;
+	}
+
+	public SlowConsumerOutputStream stall(long everyBytes, long duration, TimeUnit unit) {
+		if (everyBytes <= 0)
+			throw new IllegalArgumentException(format("Stall interval must be positive, given %d bytes.", everyBytes));
+
+		if (duration < 0)
+			throw new IllegalArgumentException(format("Stall duration cannot be negative, given %d %s.", duration, unit));
+
+		this.stallEvery = everyBytes;
+		this.stallNanos = unit.toNanos(duration);
+		this.nextStall = everyBytes;
+		return this;
+	}
+
+	public SlowConsumerOutputStream disconnectAfter(long bytes) {
+		this.disconnectAfter = bytes;
+		return this;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		block(1);
+		delegate.write(b);
+		written++;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		block(length);
+		delegate.write(bytes, offset, length);
+		written += length;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		delegate.flush();
+	}
+
+	private void block(long length) throws IOException {
+		if (written + length > disconnectAfter)
+			throw new IOException(format("Connection reset by peer after %d bytes.", disconnectAfter));
+
+		long blockedStart = System.nanoTime();
+		if (start < 0)
+			start = blockedStart;
+
+		// one write can pass several stall points, the client stalls at each of them
+		long stallDeadline = blockedStart;
+		while (written + length >= nextStall) {
+			stallDeadline += stallNanos;
+			start += stallNanos;
+			nextStall += stallEvery;
+		}
+		sleepUntil(stallDeadline);
+
+		if (bytesPerSecond != Long.MAX_VALUE) {
+			long consumed = written + length - bufferSize;
+			if (consumed > 0)
+				sleepUntil(start + (long) (consumed * 1_000_000_000D / bytesPerSecond));
+		}
+
+		blockedNanos += System.nanoTime() - blockedStart;
+	}
+
+	private static void sleepUntil(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0)
+			LockSupport.parkNanos(remaining);
+	}
+
+	/**
+	 * Runs the call and splits its duration into the time blocked in writes and the rest spent computing.
+	 */
+	public WriteTiming measure(Runnable call) {
+		long blockedBefore = blockedNanos;
+		long startTime = System.nanoTime();
+		call.run();
+		return new WriteTiming(System.nanoTime() - startTime, blockedNanos - blockedBefore);
+	}
+
+	public long getWritten() {
+		return written;
+	}
+
+	public long getBlockedNanos() {
+		return blockedNanos;
+	}
+
+	public static final class WriteTiming {
+
+		private final long totalNanos;
+
+		private final long blockedNanos;
+
+		private WriteTiming(long totalNanos, long blockedNanos) {
+			this.totalNanos = totalNanos;
+			this.blockedNanos = blockedNanos;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getBlockedNanos() {
+			return blockedNanos;
+		}
+
+		public long getComputeNanos() {
+			return Math.max(0, totalNanos - blockedNanos);
+		}
+
+		public double getBlockedRatio() {
+			return totalNanos == 0 ? 0 : (double) blockedNanos / totalNanos;
+		}
+
+		@Override
+		public String toString() {
+			return format("total %.3f ms, blocked in writes %.3f ms (%.1f %%), computing %.3f ms",
+				totalNanos / 1e6, blockedNanos / 1e6, getBlockedRatio() * 100, getComputeNanos() / 1e6);
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.easymock;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.easymock.EasyMockSupport;
+
+public class GeneratedInjectors {
+
+	private static final Map<Class<?>, Optional<GeneratedInjector<EasyMockSupport>>> injectors =
+		new ConcurrentHashMap<>();
+
+	public static Optional<GeneratedInjector<EasyMockSupport>> find(Class<?> testClass) {
+		return injectors.computeIfAbsent(testClass, GeneratedInjectors::load);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Optional<GeneratedInjector<EasyMockSupport>> load(Class<?> testClass) {
+		Class<?> clazz;
+		try {
+			clazz = Class.forName(testClass.getName() + GeneratedInjector.SUFFIX, true, testClass.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return Optional.empty();
+		}
+
+		try {
+			return Optional.of((GeneratedInjector<EasyMockSupport>) clazz.newInstance());
+		} catch (Exception e) {
+			throw new RuntimeException(
+				format("Error occurred during initialization class '%s'.", clazz.getCanonicalName()), e);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.easymock;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.joyrest.test.unit.annotation.MockLatency;
+import org.joyrest.test.unit.metrics.Durations;
+import org.joyrest.test.unit.metrics.LatencyHistogram;
+
+/**
+ * Latency and failures added to every answer of a mock. The mock is invoked first, so expectations are consumed
+ * even if the answer fails afterwards.
+ */
+public final class MockBehavior {
+
+	private static final MockBehavior NONE = new MockBehavior(random -> 0, 0, null);
+
+	private final ToLongFunction<ThreadLocalRandom> latency;
+
+	private final double failureProbability;
+
+	private final Supplier<? extends RuntimeException> failure;
+
+	private MockBehavior(ToLongFunction<ThreadLocalRandom> latency, double failureProbability,
+			Supplier<? extends RuntimeException> failure) {
+		this.latency = latency;
+		this.failureProbability = failureProbability;
+		this.failure = failure;
+	}
+
+	public static MockBehavior none() {
+		return NONE;
+	}
+
+	public static MockBehavior fixed(long duration, TimeUnit unit) {
+		long nanos = unit.toNanos(duration);
+		return new MockBehavior(random -> nanos, 0, null);
+	}
+
+	public static MockBehavior uniform(long min, long max, TimeUnit unit) {
+		long minNanos = unit.toNanos(min);
+		long maxNanos = unit.toNanos(max);
+		if (minNanos > maxNanos)
+			throw new IllegalArgumentException("Minimal latency cannot be greater than the maximal one.");
+
+		return new MockBehavior(random -> minNanos + (long) (random.nextDouble() * (maxNanos - minNanos)), 0, null);
+	}
+
+	/**
+	 * Replays the distribution of the recorded latencies in nanoseconds.
+	 */
+	public static MockBehavior histogram(LatencyHistogram histogram) {
+		requireNonNull(histogram, "Histogram cannot be null.");
+		if (histogram.getCount() == 0)
+			throw new IllegalArgumentException("Histogram does not contain any latency.");
+
+		return new MockBehavior(random -> histogram.getValueAtPercentile(random.nextDouble() * 100), 0, null);
+	}
+
+	/**
+	 * Replays latencies from a classpath resource, one duration per line, empty lines and lines starting
+	 * with {@code #} are skipped.
+	 */
+	public static MockBehavior histogram(String resource) {
+		InputStream stream = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource);
+		if (isNull(stream))
+			throw new RuntimeException(format("Latency histogram '%s' does not exist.", resource));
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while (!isNull(line = reader.readLine())) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#"))
+					histogram.record(Durations.parse(line));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(format("Latency histogram '%s' cannot be read.", resource), e);
+		}
+		return histogram(histogram);
+	}
+
+	static MockBehavior of(MockLatency annotation) {
+		MockBehavior behavior;
+		if (!annotation.fixed().isEmpty()) {
+			behavior = fixed(Durations.parse(annotation.fixed()), TimeUnit.NANOSECONDS);
+		} else if (!annotation.min().isEmpty() || !annotation.max().isEmpty()) {
+			if (annotation.min().isEmpty() || annotation.max().isEmpty())
+				throw new IllegalArgumentException("Uniform latency requires both min and max.");
+
+			behavior = uniform(Durations.parse(annotation.min()), Durations.parse(annotation.max()),
+				TimeUnit.NANOSECONDS);
+		} else if (!annotation.histogram().isEmpty()) {
+			behavior = histogram(annotation.histogram());
+		} else {
+			behavior = none();
+		}
+		return behavior.failing(annotation.failureProbability());
+	}
+
+	public MockBehavior failing(double probability) {
+		return failing(probability, () -> new RuntimeException("Failure injected into the mock."));
+	}
+
+	public MockBehavior failing(double probability, Supplier<? extends RuntimeException> failure) {
+		if (probability < 0 || probability > 1)
+			throw new IllegalArgumentException(format("Invalid failure probability %s.", probability));
+
+		return new MockBehavior(latency, probability, requireNonNull(failure, "Failure cannot be null."));
+	}
+
+	boolean isNone() {
+		return failureProbability == 0 && latency == NONE.latency;
+	}
+
+	/**
+	 * Wraps the mock into a proxy of the given interface which answers according to this behavior. The type can be
+	 * a raw interface while the returned proxy keeps the type of the mock.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T wrap(Class<? super T> type, T mock) {
+		if (!type.isInterface())
+			throw new RuntimeException(
+				format("Mock behavior can be added only to interfaces, '%s' is a class.", type.getCanonicalName()));
+
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new Handler(mock));
+	}
+
+	private void delay() {
+		long nanos = latency.applyAsLong(ThreadLocalRandom.current());
+		if (nanos > 0) {
+			long deadline = System.nanoTime() + nanos;
+			long remaining;
+			while ((remaining = deadline - System.nanoTime()) > 0)
+				LockSupport.parkNanos(remaining);
+		}
+	}
+
+	private void fail() {
+		if (failureProbability > 0 && ThreadLocalRandom.current().nextDouble() < failureProbability)
+			throw failure.get();
+	}
+
+	private final class Handler implements InvocationHandler {
+
+		private final Object mock;
+
+		private Handler(Object mock) {
+			this.mock = mock;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class) {
+				switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						return invokeMock(method, args);
+				}
+			}
+
+			delay();
+			Object result = invokeMock(method, args);
+			fail();
+			return result;
+		}
+
+		private Object invokeMock(Method method, Object[] args) throws Throwable {
+			// interfaces of mocks do not have to be public
+			method.setAccessible(true);
+			try {
+				return method.invoke(mock, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.easymock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Behaviors of mocks configured on a rule. A behavior of a mock field has precedence over
+ * {@link org.joyrest.test.unit.annotation.MockLatency} which has precedence over the default behavior.
+ */
+public final class MockBehaviors {
+
+	private final Map<String, MockBehavior> fields = new HashMap<>();
+
+	private MockBehavior defaultBehavior = null;
+
+	public MockBehaviors forAll(MockBehavior behavior) {
+		this.defaultBehavior = requireNonNull(behavior, "Behavior cannot be null.");
+		return this;
+	}
+
+	public MockBehaviors forField(String mockField, MockBehavior behavior) {
+		fields.put(requireNonNull(mockField, "Mock field cannot be null."),
+			requireNonNull(behavior, "Behavior cannot be null."));
+		return this;
+	}
+
+	public boolean isEmpty() {
+		return fields.isEmpty() && isNull(defaultBehavior);
+	}
+
+	MockBehavior get(String mockField, MockBehavior annotated) {
+		MockBehavior behavior = fields.get(mockField);
+		if (nonNull(behavior))
+			return behavior;
+
+		if (nonNull(annotated))
+			return annotated;
+
+		return defaultBehavior;
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.easymock;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.easymock.MockType;
+import org.joyrest.test.unit.annotation.MockLatency;
+
+/**
+ * Injection plan of one test class. Mock fields of the test and their bindings to fields of every
+ * tested class are resolved only once, subsequent injections only create mocks and invoke prepared setters.
+ */
+final class MockInjectionPlan {
+
+	private static final Map<Class<?>, MockInjectionPlan> plans = new ConcurrentHashMap<>();
+
+	private final List<MockField> mocks;
+
+	private final Map<Class<?>, List<Binding>> bindings = new ConcurrentHashMap<>();
+
+	private MockInjectionPlan(List<MockField> mocks) {
+		this.mocks = mocks;
+	}
+
+	static MockInjectionPlan of(Class<?> testClass) {
+		return plans.computeIfAbsent(testClass, MockInjectionPlan::create);
+	}
+
+	static boolean isCreated(Class<?> testClass) {
+		return plans.containsKey(testClass);
+	}
+
+	void inject(EasyMockSupport test, Object subject, MockBehaviors behaviors) {
+		Object[] created = new Object[mocks.size()];
+		for (int i = 0; i < created.length; i++) {
+			MockField field = mocks.get(i);
+			created[i] = test.createMock(field.name, field.type, field.mockType);
+			set(field.setter, test, created[i]);
+
+			// Only the subject gets the wrapped mock, the test records expectations on the mock itself
+			MockBehavior behavior = behaviors.get(field.field.getName(), field.behavior);
+			if (nonNull(behavior) && !behavior.isNone())
+				created[i] = wrap(behavior, field.mockType, created[i]);
+		}
+
+		for (Binding binding : bindings(subject.getClass()))
+			set(binding.setter, subject, created[binding.mock]);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T wrap(MockBehavior behavior, Class<T> type, Object mock) {
+		return behavior.wrap(type, (T) mock);
+	}
+
+	private List<Binding> bindings(Class<?> subjectClass) {
+		List<Binding> resolved = bindings.get(subjectClass);
+		if (isNull(resolved)) {
+			// Unsatisfied qualifiers throw an exception, such plans are intentionally not cached
+			resolved = createBindings(subjectClass);
+			bindings.putIfAbsent(subjectClass, resolved);
+		}
+		return resolved;
+	}
+
+	private static MockInjectionPlan create(Class<?> testClass) {
+		List<MockField> mocks = new ArrayList<>();
+		for (Field field : testClass.getDeclaredFields()) {
+			Mock annotation = field.getAnnotation(Mock.class);
+			if (isNull(annotation))
+				continue;
+
+			mocks.add(new MockField(field, annotation));
+		}
+		return new MockInjectionPlan(Collections.unmodifiableList(mocks));
+	}
+
+	private List<Binding> createBindings(Class<?> subjectClass) {
+		List<Field> fields = new ArrayList<>();
+		for (Field field : subjectClass.getDeclaredFields())
+			if (isInjectable(field))
+				fields.add(field);
+
+		List<Binding> bindings = new ArrayList<>();
+		for (int i = 0; i < mocks.size(); i++) {
+			MockField mock = mocks.get(i);
+			if (isNull(mock.qualifier))
+				continue;
+
+			Field field = getFieldByName(subjectClass, mock.qualifier);
+			if (isNull(field) || !isInjectable(field) || !field.getType().isAssignableFrom(mock.mockType))
+				throw new RuntimeException(format("Unsatisfied qualifier: '%s'", mock.qualifier));
+
+			bindings.add(new Binding(setter(field), i));
+			fields.remove(field);
+		}
+
+		for (Field field : fields) {
+			int assigned = -1;
+			for (int i = 0; i < mocks.size(); i++) {
+				MockField mock = mocks.get(i);
+				if (nonNull(mock.qualifier) || !field.getType().isAssignableFrom(mock.mockType))
+					continue;
+
+				if (assigned >= 0)
+					throw new RuntimeException(
+						format("At least two mocks can be assigned to '%s': %s and %s",
+							field, mocks.get(assigned).field, mock.field));
+
+				assigned = i;
+			}
+
+			if (assigned >= 0)
+				bindings.add(new Binding(setter(field), assigned));
+		}
+
+		return Collections.unmodifiableList(bindings);
+	}
+
+	private static boolean isInjectable(Field field) {
+		// Skip final or static fields
+		return (field.getModifiers() & (Modifier.STATIC + Modifier.FINAL)) == 0;
+	}
+
+	private static Field getFieldByName(Class<?> clazz, String fieldName) {
+		try {
+			return clazz.getDeclaredField(fieldName);
+		} catch (NoSuchFieldException | SecurityException e) {
+			return null;
+		}
+	}
+
+	private static MethodHandle setter(Field field) {
+		try {
+			field.setAccessible(true);
+			return MethodHandles.lookup().unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(format("Error occurred during accessing the field '%s'.", field), e);
+		}
+	}
+
+	private static void set(MethodHandle setter, Object target, Object value) {
+		try {
+			setter.invoke(target, value);
+		} catch (Throwable e) {
+			throw new RuntimeException("Error occurred during setting a mock into the field.", e);
+		}
+	}
+
+	private static final class MockField {
+
+		private final Field field;
+
+		private final String name;
+
+		private final String qualifier;
+
+		private final MockType type;
+
+		private final Class<?> mockType;
+
+		private final MethodHandle setter;
+
+		private final MockBehavior behavior;
+
+		private MockField(Field field, Mock annotation) {
+			this.field = field;
+			// Empty string means we are on the default value which we means no name (aka null) from the EasyMock point of view
+			this.name = annotation.name().isEmpty() ? null : annotation.name();
+			this.qualifier = annotation.fieldName().isEmpty() ? null : annotation.fieldName();
+			this.type = annotation.type();
+			this.mockType = field.getType();
+			this.setter = setter(field);
+
+			MockLatency latency = field.getAnnotation(MockLatency.class);
+			this.behavior = isNull(latency) ? null : MockBehavior.of(latency);
+		}
+	}
+
+	private static final class Binding {
+
+		private final MethodHandle setter;
+
+		private final int mock;
+
+		private Binding(MethodHandle setter, int mock) {
+			this.setter = setter;
+			this.mock = mock;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.handler;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.joyrest.exception.handler.InternalExceptionHandler;
+import org.joyrest.test.unit.metrics.AllocationMeasurement;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+
+/**
+ * Creates and handles exceptions of a scenario repeatedly on the given number of threads. Every thread reuses
+ * its own request and response, the response is reset before every handling. Duration is measured first,
+ * allocations are measured afterwards on the already warmed up handler.
+ */
+public class ExceptionBenchmark {
+
+	private static final int ALLOCATION_ITERATIONS = 1_000;
+
+	private final int threads;
+
+	private final int warmup;
+
+	private final int iterations;
+
+	private final ThreadFactory threadFactory;
+
+	public ExceptionBenchmark(int threads, int warmup, int iterations, ThreadFactory threadFactory) {
+		if (threads < 1 || warmup < 0 || iterations < 1)
+			throw new IllegalArgumentException(
+				"Number of threads and iterations must be positive, warmup cannot be negative.");
+
+		this.threads = threads;
+		this.warmup = warmup;
+		this.iterations = iterations;
+		this.threadFactory = requireNonNull(threadFactory, "Thread factory cannot be null.");
+	}
+
+	public ExceptionReport run(ExceptionScenario<?> scenario, InternalExceptionHandler handler)
+			throws InterruptedException {
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		Worker[] workers = new Worker[threads];
+		Thread[] workerThreads = new Thread[threads];
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(scenario.supplier(), handler, ready, start, failure);
+			workerThreads[i] = threadFactory.newThread(workers[i]);
+			workerThreads[i].start();
+		}
+
+		ready.await();
+		long started = System.nanoTime();
+		start.countDown();
+		for (Thread thread : workerThreads)
+			thread.join();
+
+		if (nonNull(failure.get()))
+			throw new RuntimeException("Exception handler failed during the benchmark.", failure.get());
+
+		// Workers measure allocations after the timed handling, hence the end of the last timed handling is used
+		long finished = started;
+		long bytes = 0;
+		for (Worker worker : workers) {
+			finished = Math.max(finished, worker.finished);
+			bytes += worker.bytes;
+		}
+
+		return new ExceptionReport(scenario.toString(), threads, (long) threads * iterations,
+			finished - started, bytes / threads);
+	}
+
+	private class Worker implements Runnable {
+
+		private final Supplier<? extends Exception> exceptions;
+
+		private final InternalExceptionHandler handler;
+
+		private final CountDownLatch ready;
+
+		private final CountDownLatch start;
+
+		private final AtomicReference<Throwable> failure;
+
+		private final MockRequest<?> request = new MockRequest<>();
+
+		private final MockResponse<?> response = new MockResponse<>();
+
+		// Read only after the worker thread is joined
+		private long finished;
+
+		private long bytes;
+
+		private Worker(Supplier<? extends Exception> exceptions, InternalExceptionHandler handler,
+				CountDownLatch ready, CountDownLatch start, AtomicReference<Throwable> failure) {
+			this.exceptions = exceptions;
+			this.handler = handler;
+			this.ready = ready;
+			this.start = start;
+			this.failure = failure;
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int i = 0; i < warmup; i++)
+					handle();
+
+				ready.countDown();
+				start.await();
+
+				for (int i = 0; i < iterations; i++)
+					handle();
+				finished = System.nanoTime();
+
+				bytes = AllocationMeasurement.measure(this::handle, 0, Math.min(iterations, ALLOCATION_ITERATIONS))
+					.getBytes();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+				ready.countDown();
+			}
+		}
+
+		private void handle() {
+			response.reset();
+			handler.execute(request, response, exceptions.get());
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.handler;
+
+import static java.lang.String.format;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of an exception benchmark, throughput is summed over all threads and allocations are averaged.
+ */
+public final class ExceptionReport {
+
+	private final String scenario;
+
+	private final int threads;
+
+	private final long handled;
+
+	private final long durationNanos;
+
+	private final long bytesPerException;
+
+	ExceptionReport(String scenario, int threads, long handled, long durationNanos, long bytesPerException) {
+		this.scenario = scenario;
+		this.threads = threads;
+		this.handled = handled;
+		this.durationNanos = durationNanos;
+		this.bytesPerException = bytesPerException;
+	}
+
+	public String getScenario() {
+		return scenario;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getHandled() {
+		return handled;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * Returns handled exceptions per second.
+	 */
+	public double getThroughput() {
+		return durationNanos == 0 ? 0 : handled / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * Returns the average duration of creating and handling one exception on one thread.
+	 */
+	public long getNanosPerException() {
+		return handled == 0 ? 0 : durationNanos * threads / handled;
+	}
+
+	public long getBytesPerException() {
+		return bytesPerException;
+	}
+
+	@Override
+	public String toString() {
+		return format("%s: threads=%d, handled=%d, throughput=%.1f exceptions/s, %d ns and %d bytes per exception",
+			scenario, threads, handled, getThroughput(), getNanosPerException(), bytesPerException);
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.handler;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+/**
+ * Describes how exceptions passed to a handler are created during an exception benchmark. An exception is either
+ * pre-allocated and reused, or created for every handling with or without a stack trace, optionally with a chain
+ * of causes of the given depth.
+ *
+ * <p>Exceptions without a stack trace can be created from a class only if the class declares the constructor
+ * {@code (String, Throwable, boolean, boolean)} of {@link Throwable}, otherwise pass a factory which creates
+ * stackless exceptions itself.
+ */
+public final class ExceptionScenario<T extends Exception> {
+
+	private static final String MESSAGE = "Benchmarked exception";
+
+	private final Class<T> type;
+
+	private final Supplier<T> factory;
+
+	private final Constructor<T> stacklessConstructor;
+
+	private boolean preallocated = false;
+
+	private boolean stackTrace = true;
+
+	private int chainDepth = 0;
+
+	private ExceptionScenario(Class<T> type, Supplier<T> factory, Constructor<T> stacklessConstructor) {
+		this.type = type;
+		this.factory = factory;
+		this.stacklessConstructor = stacklessConstructor;
+	}
+
+	public static <T extends Exception> ExceptionScenario<T> of(Class<T> type, Supplier<T> factory) {
+		return new ExceptionScenario<>(requireNonNull(type, "Type cannot be null."),
+			requireNonNull(factory, "Factory cannot be null."), null);
+	}
+
+	public static <T extends Exception> ExceptionScenario<T> of(Class<T> type) {
+		requireNonNull(type, "Type cannot be null.");
+		Constructor<T> messageConstructor = constructor(type, String.class);
+		Constructor<T> defaultConstructor = constructor(type);
+		if (isNull(messageConstructor) && isNull(defaultConstructor))
+			throw new IllegalArgumentException(format("Exception '%s' does not declare a constructor (String) nor (), " +
+				"use a factory instead.", type.getCanonicalName()));
+
+		Supplier<T> factory = isNull(messageConstructor)
+			? () -> instantiate(defaultConstructor)
+			: () -> instantiate(messageConstructor, MESSAGE);
+
+		return new ExceptionScenario<>(type, factory,
+			constructor(type, String.class, Throwable.class, boolean.class, boolean.class));
+	}
+
+	/**
+	 * Creates only one exception which is handled again and again.
+	 */
+	public ExceptionScenario<T> preallocated() {
+		this.preallocated = true;
+		return this;
+	}
+
+	public ExceptionScenario<T> stackTrace(boolean stackTrace) {
+		if (!stackTrace && isNull(stacklessConstructor))
+			throw new IllegalArgumentException(format("Exception '%s' cannot be created without a stack trace, " +
+				"use a factory creating stackless exceptions instead.", type.getCanonicalName()));
+
+		this.stackTrace = stackTrace;
+		return this;
+	}
+
+	/**
+	 * Adds a chain of causes of the given depth to every created exception.
+	 */
+	public ExceptionScenario<T> chained(int depth) {
+		if (depth < 0)
+			throw new IllegalArgumentException("Depth of the chain cannot be negative.");
+
+		this.chainDepth = depth;
+		return this;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	public boolean isPreallocated() {
+		return preallocated;
+	}
+
+	/**
+	 * Returns a supplier of exceptions for one benchmark run, the pre-allocated exception is created here.
+	 * A chained exception is created here as well to fail before the benchmark if its cause cannot be set.
+	 */
+	Supplier<T> supplier() {
+		if (!preallocated) {
+			if (chainDepth > 0)
+				create();
+			return this::create;
+		}
+
+		T exception = create();
+		return () -> exception;
+	}
+
+	private T create() {
+		Throwable cause = chainDepth > 0 ? chain(chainDepth, stackTrace) : null;
+		if (!stackTrace)
+			return instantiate(stacklessConstructor, MESSAGE, cause, false, false);
+
+		T exception = factory.get();
+		if (nonNull(cause)) {
+			if (nonNull(exception.getCause()))
+				throw causeAlreadySet(exception, null);
+
+			try {
+				exception.initCause(cause);
+			} catch (IllegalStateException e) {
+				throw causeAlreadySet(exception, e);
+			}
+		}
+		return exception;
+	}
+
+	private IllegalStateException causeAlreadySet(T exception, IllegalStateException cause) {
+		return new IllegalStateException(format("Exception '%s' created by the factory already has a cause, " +
+			"it cannot be chained. Use a factory which does not set any cause.", exception.getClass().getCanonicalName()), cause);
+	}
+
+	private static Throwable chain(int depth, boolean stackTrace) {
+		Throwable cause = null;
+		for (int i = depth; i > 0; i--)
+			cause = new ChainedCause(i, cause, stackTrace);
+		return cause;
+	}
+
+	private static <T> Constructor<T> constructor(Class<T> type, Class<?>... parameters) {
+		try {
+			Constructor<T> constructor = type.getDeclaredConstructor(parameters);
+			constructor.setAccessible(true);
+			return constructor;
+		} catch (NoSuchMethodException | SecurityException e) {
+			return null;
+		}
+	}
+
+	private static <T> T instantiate(Constructor<T> constructor, Object... arguments) {
+		try {
+			return constructor.newInstance(arguments);
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			throw new RuntimeException(format("Error occurred during creating exception '%s'.",
+				constructor.getDeclaringClass().getCanonicalName()), e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return format("%s [%s, %s, chain depth %d]", type.getSimpleName(),
+			preallocated ? "pre-allocated" : "created per handling",
+			stackTrace ? "with stack trace" : "stackless", chainDepth);
+	}
+
+	private static final class ChainedCause extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private ChainedCause(int level, Throwable cause, boolean stackTrace) {
+			super("Cause " + level, cause, false, stackTrace);
+		}
+	}
+}
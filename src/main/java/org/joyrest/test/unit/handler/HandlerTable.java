@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.handler;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.joyrest.exception.configuration.ExceptionConfiguration;
+import org.joyrest.exception.handler.InternalExceptionHandler;
+
+/**
+ * Keeps exception handlers of the tested configuration, the configuration is initialized only once.
+ * Handlers are resolved in the same way as the framework does it, a handler registered for the closest
+ * superclass of the given exception class wins. Every resolved class (even the one without any handler)
+ * is cached, hence a repeated resolution is a single map lookup.
+ */
+public class HandlerTable {
+
+	private ExceptionConfiguration configuration = null;
+
+	private Map<Class<?>, InternalExceptionHandler> handlers = null;
+
+	private final Map<Class<?>, InternalExceptionHandler> resolved = new HashMap<>();
+
+	public void initialize(ExceptionConfiguration configuration) {
+		requireNonNull(configuration, "Configuration cannot be null.");
+
+		if (this.configuration == configuration && nonNull(handlers))
+			return;
+
+		configuration.initialize();
+		this.handlers = configuration.getExceptionHandlers().stream()
+			.collect(toMap(InternalExceptionHandler::getExceptionClass, Function.identity()));
+		this.resolved.clear();
+		this.configuration = configuration;
+	}
+
+	public InternalExceptionHandler resolve(Class<?> clazz) {
+		InternalExceptionHandler handler = resolved.get(clazz);
+		if (nonNull(handler) || resolved.containsKey(clazz))
+			return handler;
+
+		for (Class<?> current = clazz; nonNull(current) && isNull(handler); current = current.getSuperclass())
+			handler = handlers.get(current);
+
+		resolved.put(clazz, handler);
+		return handler;
+	}
+
+	public void invalidate() {
+		this.configuration = null;
+		this.handlers = null;
+		this.resolved.clear();
+	}
+}
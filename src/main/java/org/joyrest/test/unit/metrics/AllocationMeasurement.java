@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.lang.String.format;
+
+/**
+ * Average allocations of one call measured on the current thread. Allocations of the measurement itself
+ * are calibrated on an empty call and subtracted.
+ */
+public final class AllocationMeasurement {
+
+	private static final Runnable EMPTY_CALL = () -> {
+	};
+
+	private final long bytes;
+
+	private final long[] phases;
+
+	private AllocationMeasurement(long bytes, long[] phases) {
+		this.bytes = bytes;
+		this.phases = phases;
+	}
+
+	public static AllocationMeasurement measure(Runnable call, int warmup, int iterations) {
+		if (warmup < 0 || iterations < 1)
+			throw new IllegalArgumentException("Number of warmup iterations cannot be negative and iterations must be positive.");
+
+		AllocationMeasurement overhead = run(AllocationMeasurement::emptyPhases, warmup, iterations);
+		AllocationMeasurement measured = run(call, warmup, iterations);
+
+		long[] phases = new long[measured.phases.length];
+		for (int i = 0; i < phases.length; i++)
+			phases[i] = Math.max(0, measured.phases[i] - overhead.phases[i]);
+
+		return new AllocationMeasurement(Math.max(0, measured.bytes - overhead.bytes), phases);
+	}
+
+	private static AllocationMeasurement run(Runnable call, int warmup, int iterations) {
+		for (int i = 0; i < warmup; i++)
+			call.run();
+
+		AllocationMeter.startRecording();
+		long[] phases;
+		long allocated;
+		try {
+			long started = AllocationMeter.allocatedBytes();
+			for (int i = 0; i < iterations; i++)
+				call.run();
+			allocated = AllocationMeter.allocatedBytes() - started;
+		} finally {
+			phases = AllocationMeter.stopRecording();
+		}
+
+		for (int i = 0; i < phases.length; i++)
+			phases[i] /= iterations;
+
+		return new AllocationMeasurement(allocated / iterations, phases);
+	}
+
+	private static void emptyPhases() {
+		PhaseMeter meter = PhaseMeter.start();
+		EMPTY_CALL.run();
+		meter.phase(Phase.RESOLUTION);
+		meter.phase(Phase.EXTRACTION);
+		meter.phase(Phase.EXECUTION);
+		meter.finish(null);
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getBytes(Phase phase) {
+		return phases[phase.ordinal()];
+	}
+
+	/**
+	 * Returns allocations which are not assigned to any phase (e.g. done directly by the measured lambda).
+	 */
+	public long getUnassignedBytes() {
+		long assigned = 0;
+		for (long phase : phases)
+			assigned += phase;
+		return Math.max(0, bytes - assigned);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(format("%d bytes per call", bytes));
+		for (Phase phase : Phase.values())
+			builder.append(format(", %s: %d", phase.getLabel(), getBytes(phase)));
+		return builder.append(format(", other: %d", getUnassignedBytes())).toString();
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Measures bytes allocated by the current thread using {@code com.sun.management.ThreadMXBean}. A recording started
+ * on a thread accumulates allocations of the individual call phases reported by {@link PhaseMeter}.
+ */
+public final class AllocationMeter {
+
+	private static final com.sun.management.ThreadMXBean threadBean = initThreadBean();
+
+	private static final ThreadLocal<long[]> recordings = new ThreadLocal<>();
+
+	private static volatile int activeRecordings = 0;
+
+	private AllocationMeter() {
+	}
+
+	private static com.sun.management.ThreadMXBean initThreadBean() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		if (!threadBean.isThreadAllocatedMemorySupported())
+			return null;
+
+		if (!threadBean.isThreadAllocatedMemoryEnabled())
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+		return threadBean;
+	}
+
+	public static boolean isSupported() {
+		return nonNull(threadBean);
+	}
+
+	public static long allocatedBytes() {
+		if (isNull(threadBean))
+			throw new UnsupportedOperationException("Measuring of allocated bytes is not supported by the running JVM.");
+
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	public static boolean isRecording() {
+		return activeRecordings > 0 && nonNull(recordings.get());
+	}
+
+	public static void startRecording() {
+		if (nonNull(recordings.get()))
+			throw new IllegalStateException("Allocations are already recorded on the current thread.");
+
+		recordings.set(new long[Phase.values().length]);
+		synchronized (AllocationMeter.class) {
+			activeRecordings++;
+		}
+	}
+
+	/**
+	 * Stops the recording of the current thread and returns allocated bytes indexed by {@link Phase#ordinal()}.
+	 */
+	public static long[] stopRecording() {
+		long[] recorded = recordings.get();
+		if (isNull(recorded))
+			throw new IllegalStateException("Allocations are not recorded on the current thread.");
+
+		recordings.remove();
+		synchronized (AllocationMeter.class) {
+			activeRecordings--;
+		}
+		return Arrays.copyOf(recorded, recorded.length);
+	}
+
+	static void record(long[] bytes) {
+		long[] recorded = recordings.get();
+		for (int i = 0; i < recorded.length; i++)
+			recorded[i] += bytes[i];
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.util.Objects.nonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Numbers of live instances and their bytes per class, taken by the diagnostic command {@code GC.class_histogram}
+ * of HotSpot which forces a full garbage collection before counting.
+ */
+public final class ClassHistogram {
+
+	private static final Pattern LINE = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+).*$");
+
+	private final Map<String, long[]> classes;
+
+	private ClassHistogram(Map<String, long[]> classes) {
+		this.classes = classes;
+	}
+
+	/**
+	 * Returns the histogram of the live heap, or nothing if the JVM does not provide the diagnostic command.
+	 */
+	public static Optional<ClassHistogram> take() {
+		try {
+			Object histogram = ManagementFactory.getPlatformMBeanServer().invoke(
+				new ObjectName("com.sun.management:type=DiagnosticCommand"), "gcClassHistogram",
+				new Object[] {new String[0]}, new String[] {String[].class.getName()});
+
+			return Optional.of(parse(String.valueOf(histogram)));
+		} catch (JMException | RuntimeException e) {
+			return Optional.empty();
+		}
+	}
+
+	static ClassHistogram parse(String histogram) {
+		Map<String, long[]> classes = new HashMap<>();
+		for (String line : histogram.split("\\R")) {
+			Matcher matcher = LINE.matcher(line);
+			if (matcher.matches())
+				classes.put(matcher.group(3),
+					new long[] {Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))});
+		}
+		return new ClassHistogram(Collections.unmodifiableMap(classes));
+	}
+
+	public long getInstances(String className) {
+		long[] counts = classes.get(className);
+		return nonNull(counts) ? counts[0] : 0;
+	}
+
+	public long getBytes(String className) {
+		long[] counts = classes.get(className);
+		return nonNull(counts) ? counts[1] : 0;
+	}
+
+	public Iterable<String> getClassNames() {
+		return classes.keySet();
+	}
+}
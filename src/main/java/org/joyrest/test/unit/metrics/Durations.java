@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.lang.String.format;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Durations with a unit used in annotations, e.g. {@code "500us"} or {@code "2ms"}.
+ */
+public final class Durations {
+
+	private static final Pattern DURATION = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(ns|us|ms|s)");
+
+	private Durations() {
+	}
+
+	public static long parse(String duration) {
+		Matcher matcher = DURATION.matcher(duration.trim());
+		if (!matcher.matches())
+			throw new IllegalArgumentException(format("Invalid duration '%s', expected e.g. '500us' or '2ms'.", duration));
+
+		double value = Double.parseDouble(matcher.group(1));
+		switch (matcher.group(2)) {
+			case "ns":
+				return (long) value;
+			case "us":
+				return (long) (value * TimeUnit.MICROSECONDS.toNanos(1));
+			case "ms":
+				return (long) (value * TimeUnit.MILLISECONDS.toNanos(1));
+			default:
+				return (long) (value * TimeUnit.SECONDS.toNanos(1));
+		}
+	}
+
+}
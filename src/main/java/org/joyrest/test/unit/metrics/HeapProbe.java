@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Samples the live heap, every sample forces a garbage collection so the garbage produced by the consumer
+ * does not count. Samples are expected to be taken rarely, e.g. every several megabytes of a consumed stream.
+ */
+public final class HeapProbe {
+
+	private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+	private final long baseline;
+
+	private volatile long peak;
+
+	private volatile int samples;
+
+	private HeapProbe(long baseline) {
+		this.baseline = baseline;
+		this.peak = baseline;
+	}
+
+	public static HeapProbe start() {
+		return new HeapProbe(liveHeap());
+	}
+
+	public synchronized void sample() {
+		peak = Math.max(peak, liveHeap());
+		samples++;
+	}
+
+	public long getBaseline() {
+		return baseline;
+	}
+
+	public long getPeak() {
+		return peak;
+	}
+
+	public long getPeakGrowth() {
+		return Math.max(0, peak - baseline);
+	}
+
+	public int getSamples() {
+		return samples;
+	}
+
+	static long liveHeap() {
+		System.gc();
+		System.gc();
+		return MEMORY.getHeapMemoryUsage().getUsed();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("peak growth %d bytes over baseline %d bytes in %d samples",
+			getPeakGrowth(), baseline, samples);
+	}
+}
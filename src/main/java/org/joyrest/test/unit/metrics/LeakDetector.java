@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs a call repeatedly in phases and samples the retained heap after every phase. The first phase is a warmup
+ * which fills legitimate caches, growth is measured from its end. Class histograms are taken as well if the JVM
+ * provides them.
+ */
+public class LeakDetector {
+
+	private final int phases;
+
+	private final int iterations;
+
+	public LeakDetector(int phases, int iterations) {
+		if (phases < 2 || iterations < 1)
+			throw new IllegalArgumentException("At least two phases (the first one is a warmup) " +
+				"and a positive number of iterations are required.");
+
+		this.phases = phases;
+		this.iterations = iterations;
+	}
+
+	public LeakReport run(Runnable call) {
+		long[] retained = new long[phases];
+		List<ClassHistogram> histograms = new ArrayList<>(phases);
+		boolean histogramAvailable = true;
+
+		for (int phase = 0; phase < phases; phase++) {
+			for (int i = 0; i < iterations; i++)
+				call.run();
+
+			if (histogramAvailable) {
+				Optional<ClassHistogram> histogram = ClassHistogram.take();
+				histogramAvailable = histogram.isPresent();
+				histogram.ifPresent(histograms::add);
+			}
+			retained[phase] = HeapProbe.liveHeap();
+		}
+
+		return new LeakReport(iterations, retained, histogramAvailable ? histograms : new ArrayList<>());
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Retained heap after every phase of a leak detection and classes whose numbers of instances grew in every phase
+ * after the warmup.
+ */
+public final class LeakReport {
+
+	private static final int MAX_REPORTED_CLASSES = 20;
+
+	private final int iterations;
+
+	private final long[] retained;
+
+	private final List<ClassGrowth> growingClasses;
+
+	LeakReport(int iterations, long[] retained, List<ClassHistogram> histograms) {
+		this.iterations = iterations;
+		this.retained = retained;
+		this.growingClasses = Collections.unmodifiableList(growingClasses(histograms));
+	}
+
+	private static List<ClassGrowth> growingClasses(List<ClassHistogram> histograms) {
+		List<ClassGrowth> growing = new ArrayList<>();
+		if (histograms.size() < 2)
+			return growing;
+
+		ClassHistogram first = histograms.get(0);
+		ClassHistogram last = histograms.get(histograms.size() - 1);
+		for (String className : last.getClassNames()) {
+			boolean grows = true;
+			for (int i = 1; i < histograms.size() && grows; i++)
+				grows = histograms.get(i).getInstances(className) > histograms.get(i - 1).getInstances(className);
+
+			if (grows)
+				growing.add(new ClassGrowth(className,
+					last.getInstances(className) - first.getInstances(className),
+					last.getBytes(className) - first.getBytes(className)));
+		}
+
+		growing.sort(Comparator.comparingLong(ClassGrowth::getBytes).reversed());
+		return growing;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int getPhases() {
+		return retained.length;
+	}
+
+	/**
+	 * Returns the retained heap in bytes after every phase.
+	 */
+	public long[] getRetained() {
+		return retained.clone();
+	}
+
+	/**
+	 * Returns growth of the retained heap since the end of the warmup phase.
+	 */
+	public long getGrowth() {
+		return retained[retained.length - 1] - retained[0];
+	}
+
+	/**
+	 * Returns classes whose instances grew in every phase after the warmup, sorted by the growth of their bytes.
+	 * Empty if the JVM does not provide class histograms.
+	 */
+	public List<ClassGrowth> getGrowingClasses() {
+		return growingClasses;
+	}
+
+	public LeakReport assertGrowthAtMost(long bytes) {
+		if (getGrowth() > bytes)
+			throw new AssertionError(format("Retained heap grows by more than the expected %d bytes.%n%s", bytes, this));
+
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(format("phases=%d, iterations=%d, growth=%d bytes, retained=[",
+			retained.length, iterations, getGrowth()));
+		for (int i = 0; i < retained.length; i++)
+			builder.append(i == 0 ? "" : ", ").append(retained[i]);
+		builder.append(']');
+
+		growingClasses.stream()
+			.limit(MAX_REPORTED_CLASSES)
+			.forEach(growth -> builder.append(format("%n%s", growth)));
+		return builder.toString();
+	}
+
+	public static final class ClassGrowth {
+
+		private final String className;
+
+		private final long instances;
+
+		private final long bytes;
+
+		private ClassGrowth(String className, long instances, long bytes) {
+			this.className = className;
+			this.instances = instances;
+			this.bytes = bytes;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+
+		public long getInstances() {
+			return instances;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		@Override
+		public String toString() {
+			return format("%s: +%d instances, +%d bytes", className, instances, bytes);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.util.Objects.nonNull;
+
+import java.util.Arrays;
+
+import org.joyrest.routing.InternalRoute;
+
+/**
+ * Splits one call into phases and measures their duration and allocations. Meters are reused per thread,
+ * hence the measurement itself does not allocate. Used only when {@link #isActive()} returns {@code true}.
+ */
+public final class PhaseMeter {
+
+	private static final ThreadLocal<PhaseMeter> meters = ThreadLocal.withInitial(PhaseMeter::new);
+
+	private final long[] nanos = new long[Phase.values().length];
+
+	private final long[] bytes = new long[Phase.values().length];
+
+	private boolean allocations;
+
+	private long lastNanos;
+
+	private long lastBytes;
+
+	private PhaseMeter() {
+	}
+
+	public static boolean isActive() {
+		return RouteMetrics.isEnabled() || AllocationMeter.isRecording();
+	}
+
+	public static PhaseMeter start() {
+		PhaseMeter meter = meters.get();
+		Arrays.fill(meter.nanos, 0);
+		Arrays.fill(meter.bytes, 0);
+		meter.allocations = AllocationMeter.isRecording();
+		if (meter.allocations)
+			meter.lastBytes = AllocationMeter.allocatedBytes();
+		meter.lastNanos = System.nanoTime();
+		return meter;
+	}
+
+	public void phase(Phase phase) {
+		long now = System.nanoTime();
+		nanos[phase.ordinal()] = now - lastNanos;
+
+		if (allocations) {
+			long allocated = AllocationMeter.allocatedBytes();
+			bytes[phase.ordinal()] = allocated - lastBytes;
+			lastBytes = allocated;
+		}
+
+		lastNanos = System.nanoTime();
+	}
+
+	public void finish(InternalRoute route) {
+		if (nonNull(route) && RouteMetrics.isEnabled())
+			RouteMetrics.record(route, nanos[Phase.RESOLUTION.ordinal()],
+				nanos[Phase.EXTRACTION.ordinal()], nanos[Phase.EXECUTION.ordinal()]);
+
+		if (allocations)
+			AllocationMeter.record(bytes);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.metrics;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joyrest.routing.InternalRoute;
+
+/**
+ * Collects latency histograms of routes executed during the whole test run. Collecting is enabled by the system
+ * property {@code joyrest.test.metrics} containing an output directory, histograms are written into
+ * {@code route-latencies.json} and {@code route-latencies.csv} when the JVM is shutting down.
+ */
+public final class RouteMetrics {
+
+	public static final String PROPERTY = "joyrest.test.metrics";
+
+	private static final String FILE_NAME = "route-latencies";
+
+	private static final double[] PERCENTILES = {50, 99, 99.9};
+
+	private static final Map<String, RouteLatencies> latencies = new ConcurrentHashMap<>();
+
+	private static final Path output = initOutput();
+
+	private RouteMetrics() {
+	}
+
+	private static Path initOutput() {
+		String directory = System.getProperty(PROPERTY);
+		if (isNull(directory) || directory.isEmpty())
+			return null;
+
+		Path path = Paths.get(directory);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> export(path), "joyrest-metrics-export"));
+		return path;
+	}
+
+	public static boolean isEnabled() {
+		return !isNull(output);
+	}
+
+	public static void record(InternalRoute route, long resolutionNanos, long extractionNanos, long executionNanos) {
+		// Every test creates its own controller, hence routes are aggregated by their method and path template
+		latencies.computeIfAbsent(route.getHttpMethod() + " " + route.getPath(), RouteLatencies::new)
+			.record(resolutionNanos, extractionNanos, executionNanos);
+	}
+
+	public static Collection<RouteLatencies> getLatencies() {
+		return Collections.unmodifiableCollection(latencies.values());
+	}
+
+	public static void export(Path directory) {
+		List<RouteLatencies> routes = new ArrayList<>(latencies.values());
+		routes.sort(Comparator.comparing(RouteLatencies::getRoute));
+
+		try {
+			Files.createDirectories(directory);
+			try (Writer writer = Files.newBufferedWriter(directory.resolve(FILE_NAME + ".csv"), StandardCharsets.UTF_8)) {
+				writeCsv(writer, routes);
+			}
+			try (Writer writer = Files.newBufferedWriter(directory.resolve(FILE_NAME + ".json"), StandardCharsets.UTF_8)) {
+				writeJson(writer, routes);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(format("Error occurred during writing route metrics into '%s'.", directory), e);
+		}
+	}
+
+	private static void writeCsv(Writer writer, List<RouteLatencies> routes) throws IOException {
+		writer.write("route,phase,count,p50,p99,p999,max\n");
+		for (RouteLatencies route : routes) {
+			writeCsv(writer, route.getRoute(), "resolution", route.getResolution());
+			writeCsv(writer, route.getRoute(), "extraction", route.getExtraction());
+			writeCsv(writer, route.getRoute(), "execution", route.getExecution());
+		}
+	}
+
+	private static void writeCsv(Writer writer, String route, String phase, LatencyHistogram histogram) throws IOException {
+		writer.write(format(Locale.ROOT, "\"%s\",%s,%d", route.replace("\"", "\"\""), phase, histogram.getCount()));
+		for (double percentile : PERCENTILES)
+			writer.write("," + histogram.getValueAtPercentile(percentile));
+		writer.write("," + histogram.getMax() + "\n");
+	}
+
+	private static void writeJson(Writer writer, List<RouteLatencies> routes) throws IOException {
+		writer.write("{\n  \"unit\": \"ns\",\n  \"routes\": [");
+		for (int i = 0; i < routes.size(); i++) {
+			RouteLatencies route = routes.get(i);
+			writer.write(i == 0 ? "\n" : ",\n");
+			writer.write(format("    {\"route\": \"%s\", ", escape(route.getRoute())));
+			writeJson(writer, "resolution", route.getResolution());
+			writer.write(", ");
+			writeJson(writer, "extraction", route.getExtraction());
+			writer.write(", ");
+			writeJson(writer, "execution", route.getExecution());
+			writer.write("}");
+		}
+		writer.write("\n  ]\n}\n");
+	}
+
+	private static void writeJson(Writer writer, String phase, LatencyHistogram histogram) throws IOException {
+		writer.write(format(Locale.ROOT, "\"%s\": {\"count\": %d, \"p50\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+			phase, histogram.getCount(), histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+			histogram.getValueAtPercentile(99.9), histogram.getMax()));
+	}
+
+	private static String escape(String value) {
+		StringBuilder builder = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\')
+				builder.append('\\').append(c);
+			else if (c < 0x20)
+				builder.append(format("\\u%04x", (int) c));
+			else
+				builder.append(c);
+		}
+		return builder.toString();
+	}
+}
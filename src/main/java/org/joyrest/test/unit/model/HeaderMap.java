@@ -0,0 +1,401 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.model;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.joyrest.model.http.HeaderName;
+
+/**
+ * Map of headers without any entry objects. Values of well-known headers (constants declared in {@link HeaderName})
+ * are kept in an array indexed by their interned id, the constant is found by its identity in most cases.
+ * Other headers are kept in a small open-addressing table. Null keys are not permitted.
+ */
+public final class HeaderMap extends AbstractMap<HeaderName, String> {
+
+	private static final HeaderName[] WELL_KNOWN;
+
+	private static final HeaderName[] IDENTITY_TABLE;
+
+	private static final int[] IDENTITY_IDS;
+
+	private static final Map<HeaderName, Integer> EQUALITY_IDS = new HashMap<>();
+
+	private static final Object NULL_VALUE = new Object();
+
+	private static final Object TOMBSTONE = new Object();
+
+	private static final int INITIAL_CUSTOM_CAPACITY = 8;
+
+	static {
+		List<HeaderName> names = new ArrayList<>();
+		for (Field field : HeaderName.class.getFields()) {
+			int modifiers = field.getModifiers();
+			if (!Modifier.isStatic(modifiers) || field.getType() != HeaderName.class)
+				continue;
+
+			try {
+				HeaderName name = (HeaderName) field.get(null);
+				if (!isNull(name) && !EQUALITY_IDS.containsKey(name)) {
+					EQUALITY_IDS.put(name, names.size());
+					names.add(name);
+				}
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		WELL_KNOWN = names.toArray(new HeaderName[names.size()]);
+		IDENTITY_TABLE = new HeaderName[tableSize(WELL_KNOWN.length * 4)];
+		IDENTITY_IDS = new int[IDENTITY_TABLE.length];
+		for (int id = 0; id < WELL_KNOWN.length; id++) {
+			int index = identityIndex(WELL_KNOWN[id]);
+			while (!isNull(IDENTITY_TABLE[index]))
+				index = (index + 1) & (IDENTITY_TABLE.length - 1);
+
+			IDENTITY_TABLE[index] = WELL_KNOWN[id];
+			IDENTITY_IDS[index] = id;
+		}
+	}
+
+	private final Object[] wellKnownValues = new Object[WELL_KNOWN.length];
+
+	private Object[] customKeys = null;
+
+	private Object[] customValues = null;
+
+	private int customUsed = 0;
+
+	private int size = 0;
+
+	public HeaderMap() {
+	}
+
+	public HeaderMap(Map<? extends HeaderName, ? extends String> headers) {
+		putAll(headers);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (!(key instanceof HeaderName))
+			return false;
+
+		int id = idOf((HeaderName) key);
+		if (id >= 0)
+			return !isNull(wellKnownValues[id]);
+
+		return customIndex((HeaderName) key) >= 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		if (!(key instanceof HeaderName))
+			return null;
+
+		int id = idOf((HeaderName) key);
+		if (id >= 0)
+			return unmask(wellKnownValues[id]);
+
+		int index = customIndex((HeaderName) key);
+		return index < 0 ? null : unmask(customValues[index]);
+	}
+
+	@Override
+	public String put(HeaderName key, String value) {
+		requireNonNull(key, "Header name cannot be null.");
+
+		int id = idOf(key);
+		if (id >= 0) {
+			Object previous = wellKnownValues[id];
+			wellKnownValues[id] = mask(value);
+			if (isNull(previous))
+				size++;
+			return unmask(previous);
+		}
+
+		int index = customIndex(key);
+		if (index >= 0) {
+			Object previous = customValues[index];
+			customValues[index] = mask(value);
+			return unmask(previous);
+		}
+
+		ensureCustomCapacity();
+		index = customSlot(key);
+		if (isNull(customKeys[index]))
+			customUsed++;
+
+		customKeys[index] = key;
+		customValues[index] = mask(value);
+		size++;
+		return null;
+	}
+
+	@Override
+	public String remove(Object key) {
+		if (!(key instanceof HeaderName))
+			return null;
+
+		int id = idOf((HeaderName) key);
+		if (id >= 0) {
+			Object previous = wellKnownValues[id];
+			wellKnownValues[id] = null;
+			if (!isNull(previous))
+				size--;
+			return unmask(previous);
+		}
+
+		int index = customIndex((HeaderName) key);
+		if (index < 0)
+			return null;
+
+		Object previous = customValues[index];
+		customKeys[index] = TOMBSTONE;
+		customValues[index] = null;
+		size--;
+		return unmask(previous);
+	}
+
+	@Override
+	public void clear() {
+		if (size == 0 && customUsed == 0)
+			return;
+
+		for (int i = 0; i < wellKnownValues.length; i++)
+			wellKnownValues[i] = null;
+
+		if (!isNull(customKeys))
+			for (int i = 0; i < customKeys.length; i++) {
+				customKeys[i] = null;
+				customValues[i] = null;
+			}
+
+		customUsed = 0;
+		size = 0;
+	}
+
+	@Override
+	public Set<Entry<HeaderName, String>> entrySet() {
+		return new AbstractSet<Entry<HeaderName, String>>() {
+			@Override
+			public Iterator<Entry<HeaderName, String>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public void clear() {
+				HeaderMap.this.clear();
+			}
+		};
+	}
+
+	private static int idOf(HeaderName name) {
+		if (IDENTITY_TABLE.length == 0)
+			return -1;
+
+		int mask = IDENTITY_TABLE.length - 1;
+		for (int index = identityIndex(name); ; index = (index + 1) & mask) {
+			HeaderName candidate = IDENTITY_TABLE[index];
+			if (candidate == name)
+				return IDENTITY_IDS[index];
+
+			if (isNull(candidate))
+				break;
+		}
+
+		// A name equal to a constant but created separately
+		Integer id = EQUALITY_IDS.get(name);
+		return isNull(id) ? -1 : id;
+	}
+
+	private static int identityIndex(HeaderName name) {
+		return spread(System.identityHashCode(name)) & (IDENTITY_TABLE.length - 1);
+	}
+
+	private int customIndex(HeaderName key) {
+		if (isNull(customKeys))
+			return -1;
+
+		int mask = customKeys.length - 1;
+		for (int index = spread(key.hashCode()) & mask; ; index = (index + 1) & mask) {
+			Object candidate = customKeys[index];
+			if (isNull(candidate))
+				return -1;
+
+			if (candidate != TOMBSTONE && (candidate == key || candidate.equals(key)))
+				return index;
+		}
+	}
+
+	private int customSlot(Object key) {
+		int mask = customKeys.length - 1;
+		int index = spread(key.hashCode()) & mask;
+		while (!isNull(customKeys[index]) && customKeys[index] != TOMBSTONE)
+			index = (index + 1) & mask;
+		return index;
+	}
+
+	private void ensureCustomCapacity() {
+		if (isNull(customKeys)) {
+			customKeys = new Object[INITIAL_CUSTOM_CAPACITY];
+			customValues = new Object[INITIAL_CUSTOM_CAPACITY];
+			return;
+		}
+
+		// Keep the load factor (including removed entries) under 0.5
+		if ((customUsed + 1) * 2 <= customKeys.length)
+			return;
+
+		Object[] keys = customKeys;
+		Object[] values = customValues;
+		int live = 0;
+		for (Object key : keys)
+			if (!isNull(key) && key != TOMBSTONE)
+				live++;
+
+		int capacity = tableSize((live + 1) * 2);
+		customKeys = new Object[Math.max(capacity, INITIAL_CUSTOM_CAPACITY)];
+		customValues = new Object[customKeys.length];
+		customUsed = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (isNull(keys[i]) || keys[i] == TOMBSTONE)
+				continue;
+
+			int index = customSlot(keys[i]);
+			customKeys[index] = keys[i];
+			customValues[index] = values[i];
+			customUsed++;
+		}
+	}
+
+	private static int tableSize(int minimum) {
+		int size = 1;
+		while (size < minimum)
+			size <<= 1;
+		return size;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static Object mask(String value) {
+		return isNull(value) ? NULL_VALUE : value;
+	}
+
+	private static String unmask(Object value) {
+		return value == NULL_VALUE ? null : (String) value;
+	}
+
+	private class EntryIterator implements Iterator<Entry<HeaderName, String>> {
+
+		// Positions of well-known values are followed by positions of the custom table
+		private int next = -1;
+
+		private int current = -1;
+
+		private EntryIterator() {
+			advance();
+		}
+
+		private void advance() {
+			int customLength = isNull(customKeys) ? 0 : customKeys.length;
+			for (next++; next < wellKnownValues.length + customLength; next++) {
+				if (next < wellKnownValues.length) {
+					if (!isNull(wellKnownValues[next]))
+						return;
+				} else {
+					Object key = customKeys[next - wellKnownValues.length];
+					if (!isNull(key) && key != TOMBSTONE)
+						return;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < wellKnownValues.length + (isNull(customKeys) ? 0 : customKeys.length);
+		}
+
+		@Override
+		public Entry<HeaderName, String> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			current = next;
+			advance();
+
+			if (current < wellKnownValues.length)
+				return new SimpleEntry<HeaderName, String>(WELL_KNOWN[current], unmask(wellKnownValues[current])) {
+					private final int id = current;
+
+					@Override
+					public String setValue(String value) {
+						wellKnownValues[id] = mask(value);
+						return super.setValue(value);
+					}
+				};
+
+			int index = current - wellKnownValues.length;
+			return new SimpleEntry<HeaderName, String>((HeaderName) customKeys[index], unmask(customValues[index])) {
+				@Override
+				public String setValue(String value) {
+					customValues[index] = mask(value);
+					return super.setValue(value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (current < 0)
+				throw new IllegalStateException();
+
+			if (current < wellKnownValues.length)
+				wellKnownValues[current] = null;
+			else {
+				customKeys[current - wellKnownValues.length] = TOMBSTONE;
+				customValues[current - wellKnownValues.length] = null;
+			}
+
+			size--;
+			current = -1;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.model;
+
+import static java.util.Objects.isNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pair of a request and a response taken from a thread-local pool. Closing the exchange resets both objects
+ * and returns them into the pool of the current thread, hence repeated calls do not allocate new mocks.
+ *
+ * <pre>
+ * try (MockExchange exchange = MockExchange.acquire()) {
+ *     get("/feeds", exchange.getRequest(), exchange.getResponse());
+ * }
+ * </pre>
+ */
+public final class MockExchange implements AutoCloseable {
+
+	private static final int MAX_POOLED = 64;
+
+	private static final ThreadLocal<Deque<MockExchange>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private final MockRequest<Object> request = new MockRequest<>();
+
+	private final MockResponse<Object> response = new MockResponse<>();
+
+	private boolean acquired = false;
+
+	private MockExchange() {
+	}
+
+	public static MockExchange acquire() {
+		MockExchange exchange = pool.get().pollFirst();
+		if (isNull(exchange))
+			exchange = new MockExchange();
+
+		exchange.acquired = true;
+		return exchange;
+	}
+
+	public MockRequest<Object> getRequest() {
+		return request;
+	}
+
+	public MockResponse<Object> getResponse() {
+		return response;
+	}
+
+	@Override
+	public void close() {
+		if (!acquired)
+			return;
+
+		acquired = false;
+		request.reset();
+		response.reset();
+
+		Deque<MockExchange> exchanges = pool.get();
+		if (exchanges.size() < MAX_POOLED)
+			exchanges.addFirst(this);
+	}
+}
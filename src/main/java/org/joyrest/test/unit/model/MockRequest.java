@@ -15,8 +15,14 @@
  */
 package org.joyrest.test.unit.model;
 
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +31,7 @@ import org.joyrest.model.http.HeaderName;
 import org.joyrest.model.http.HttpMethod;
 import org.joyrest.model.http.MediaType;
 import org.joyrest.model.request.InternalRequest;
+import org.joyrest.test.unit.body.RequestBody;
 
 public class MockRequest<E> extends InternalRequest<E> {
 
@@ -32,14 +39,27 @@ public class MockRequest<E> extends InternalRequest<E> {
 
 	private String path;
 
-	private Map<HeaderName, String> headers = new HashMap<>();
+	private final Map<HeaderName, String> ownHeaders = new HeaderMap();
+
+	private Map<HeaderName, String> headers = ownHeaders;
 
 	private InputStream inputStream;
 
-	private Map<String, String[]> queryParams = new HashMap<>();
+	private RequestBody body;
+
+	private final QueryParams ownQueryParams = new QueryParams(null);
+
+	private Map<String, String[]> queryParams = ownQueryParams;
 
 	@Override
 	public InputStream getInputStream() {
+		if (nonNull(body)) {
+			try {
+				return body.open();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Request body cannot be opened.", e);
+			}
+		}
 		return inputStream;
 	}
 
@@ -95,10 +115,92 @@ public class MockRequest<E> extends InternalRequest<E> {
 
 	public void setInputStream(InputStream inputStream) {
 		this.inputStream = inputStream;
+		this.body = null;
+	}
+
+	/**
+	 * Sets a reusable body, every {@link #getInputStream()} opens a fresh stream from the beginning of the body.
+	 */
+	public void setBody(RequestBody body) {
+		this.body = body;
+		this.inputStream = null;
+	}
+
+	public RequestBody getBody() {
+		return body;
 	}
 
 	public void setQueryParams(Map<String, String[]> queryParams) {
 		this.queryParams = queryParams;
 	}
 
+	/**
+	 * Sets the path and the query params from a raw request uri, e.g. {@code /users/5?fields=name&fields=age}.
+	 * Scheme, authority and fragment are ignored. Query params are decoded lazily, see {@link QueryParams}.
+	 */
+	public MockRequest<E> setUri(String uri) {
+		int start = uri.indexOf("://");
+		start = start < 0 ? 0 : uri.indexOf('/', start + 3);
+		if (start < 0)
+			start = uri.length();
+
+		int end = uri.length();
+		int queryStart = -1;
+		for (int i = start; i < end; i++) {
+			char c = uri.charAt(i);
+			if (c == '?' && queryStart < 0) {
+				queryStart = i;
+			} else if (c == '#') {
+				end = i;
+			}
+		}
+
+		int pathEnd = queryStart < 0 ? end : queryStart;
+		this.path = decodePath(uri.substring(start, pathEnd));
+		this.queryParams = ownQueryParams.reset(queryStart < 0 ? null : uri.substring(queryStart + 1, end));
+		return this;
+	}
+
+	public static <E> MockRequest<E> fromUri(String uri) {
+		return new MockRequest<E>().setUri(uri);
+	}
+
+	public static <E> MockRequest<E> fromUri(HttpMethod method, String uri) {
+		MockRequest<E> request = fromUri(uri);
+		request.setMethod(method);
+		return request;
+	}
+
+	private static String decodePath(String path) {
+		if (path.indexOf('%') < 0)
+			return path;
+
+		try {
+			// plus sign is not a space in the path
+			return URLDecoder.decode(path.replace("+", "%2B"), "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the request into its initial state, internal storage of headers and query params is reused.
+	 */
+	public MockRequest<E> reset() {
+		method = null;
+		path = null;
+		inputStream = null;
+		body = null;
+		contentType = null;
+		accept = null;
+
+		ownHeaders.clear();
+		headers = ownHeaders;
+		queryParams = ownQueryParams.reset(null);
+
+		setEntity(null);
+		setPathParams(Collections.emptyMap());
+		return this;
+	}
+
 }
@@ -19,24 +19,36 @@ import org.joyrest.model.http.HeaderName;
 import org.joyrest.model.http.HttpStatus;
 import org.joyrest.model.response.InternalResponse;
 import org.joyrest.model.response.Response;
+import org.joyrest.test.unit.body.CapturingOutputStream;
+import org.joyrest.test.unit.body.SlowConsumerOutputStream;
 
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.Map;
 
 public class MockResponse<E> extends InternalResponse<E>{
 
-    private Map<HeaderName, String> headers = new HashMap<>();
+    private final Map<HeaderName, String> ownHeaders = new HeaderMap();
+
+    private Map<HeaderName, String> headers = ownHeaders;
 
     private HttpStatus status;
 
-    private OutputStream outputStream;
+    private final CapturingOutputStream capture = new CapturingOutputStream();
+
+    private OutputStream outputStream = capture;
 
     @Override
     public OutputStream getOutputStream() {
         return outputStream;
     }
 
+    /**
+     * Returns the built-in stream which captures the body unless another stream has been set.
+     */
+    public CapturingOutputStream getCapture() {
+        return capture;
+    }
+
     @Override
     public Map<HeaderName, String> getHeaders() {
         return headers;
@@ -59,6 +71,15 @@ public class MockResponse<E> extends InternalResponse<E>{
         return this;
     }
 
+    /**
+     * Puts a slow client in front of the built-in capture, the returned stream is used to configure the client.
+     */
+    public SlowConsumerOutputStream slowConsumer() {
+        SlowConsumerOutputStream slowConsumer = new SlowConsumerOutputStream(capture);
+        this.outputStream = slowConsumer;
+        return slowConsumer;
+    }
+
     public void setHeaders(Map<HeaderName, String> headers) {
         this.headers = headers;
     }
@@ -71,4 +92,17 @@ public class MockResponse<E> extends InternalResponse<E>{
         this.outputStream = outputStream;
     }
 
+    /**
+     * Returns the response into its initial state, internal storage of headers and the captured body is reused.
+     */
+    public MockResponse<E> reset() {
+        ownHeaders.clear();
+        headers = ownHeaders;
+        status = null;
+        capture.reset();
+        outputStream = capture;
+        entity(null);
+        return this;
+    }
+
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.model;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Query params backed by a raw query string. Boundaries of parameters are found by one pass over the string
+ * on the first access, values of a parameter are decoded and put into an array only when the parameter is
+ * requested. The whole map is materialized only when it is iterated or modified. Internal storage is kept
+ * when the params are reset to another query string. A name or a value with a malformed escape is kept raw.
+ */
+public final class QueryParams extends AbstractMap<String, String[]> {
+
+	private static final String[] NO_VALUES = new String[0];
+
+	private String query;
+
+	// Triples of [start of name, end of name, end of value] for every parameter
+	private int[] bounds = null;
+
+	private int count = 0;
+
+	private boolean parsed = false;
+
+	private Map<String, String[]> resolved = null;
+
+	private Map<String, String[]> materialized = null;
+
+	private Map<String, String[]> storage = null;
+
+	public QueryParams(String query) {
+		this.query = isNull(query) ? "" : query;
+	}
+
+	/**
+	 * Replaces all params by params of the given raw query string.
+	 */
+	public QueryParams reset(String query) {
+		this.query = isNull(query) ? "" : query;
+		this.count = 0;
+		this.parsed = false;
+		this.materialized = null;
+
+		if (nonNull(resolved))
+			resolved.clear();
+
+		if (nonNull(storage))
+			storage.clear();
+
+		return this;
+	}
+
+	@Override
+	public String[] get(Object key) {
+		if (nonNull(materialized))
+			return materialized.get(key);
+
+		if (!(key instanceof String))
+			return null;
+
+		if (isNull(resolved))
+			resolved = new HashMap<>();
+
+		String[] values = resolved.get(key);
+		if (isNull(values)) {
+			values = collect((String) key);
+			resolved.put((String) key, values);
+		}
+		return values == NO_VALUES ? null : values;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return nonNull(get(key));
+	}
+
+	@Override
+	public String[] put(String key, String[] value) {
+		return materialize().put(key, value);
+	}
+
+	@Override
+	public String[] remove(Object key) {
+		return materialize().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		materialize().clear();
+	}
+
+	@Override
+	public Set<Entry<String, String[]>> entrySet() {
+		return materialize().entrySet();
+	}
+
+	private Map<String, String[]> materialize() {
+		if (nonNull(materialized))
+			return materialized;
+
+		parse();
+		if (isNull(storage))
+			storage = new LinkedHashMap<>();
+
+		Map<String, String[]> params = storage;
+		for (int i = 0; i < count; i++) {
+			String name = name(i);
+			String value = value(i);
+			String[] values = params.get(name);
+			if (isNull(values)) {
+				params.put(name, new String[] {value});
+			} else {
+				values = Arrays.copyOf(values, values.length + 1);
+				values[values.length - 1] = value;
+				params.put(name, values);
+			}
+		}
+
+		materialized = params;
+		if (nonNull(resolved))
+			resolved.clear();
+
+		return materialized;
+	}
+
+	private String[] collect(String name) {
+		parse();
+
+		int found = 0;
+		for (int i = 0; i < count; i++)
+			if (nameEquals(i, name))
+				found++;
+
+		if (found == 0)
+			return NO_VALUES;
+
+		String[] values = new String[found];
+		for (int i = 0, j = 0; i < count; i++)
+			if (nameEquals(i, name))
+				values[j++] = value(i);
+		return values;
+	}
+
+	private void parse() {
+		if (parsed)
+			return;
+
+		parsed = true;
+		if (isNull(bounds))
+			bounds = new int[12];
+
+		int start = 0;
+		int nameEnd = -1;
+		for (int i = 0; i <= query.length(); i++) {
+			char c = i < query.length() ? query.charAt(i) : '&';
+			if (c == '=' && nameEnd < 0) {
+				nameEnd = i;
+			} else if (c == '&') {
+				if (i > start) {
+					if (bounds.length < (count + 1) * 3)
+						bounds = Arrays.copyOf(bounds, bounds.length * 2);
+
+					bounds[count * 3] = start;
+					bounds[count * 3 + 1] = nameEnd < 0 ? i : nameEnd;
+					bounds[count * 3 + 2] = i;
+					count++;
+				}
+				start = i + 1;
+				nameEnd = -1;
+			}
+		}
+	}
+
+	private boolean nameEquals(int index, String name) {
+		int start = bounds[index * 3];
+		int end = bounds[index * 3 + 1];
+		if (isEncoded(start, end))
+			return decode(start, end).equals(name);
+
+		return end - start == name.length() && query.regionMatches(start, name, 0, name.length());
+	}
+
+	private String name(int index) {
+		return decode(bounds[index * 3], bounds[index * 3 + 1]);
+	}
+
+	private String value(int index) {
+		int nameEnd = bounds[index * 3 + 1];
+		int end = bounds[index * 3 + 2];
+		return nameEnd == end ? "" : decode(nameEnd + 1, end);
+	}
+
+	private boolean isEncoded(int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = query.charAt(i);
+			if (c == '%' || c == '+')
+				return true;
+		}
+		return false;
+	}
+
+	private String decode(int start, int end) {
+		String value = query.substring(start, end);
+		if (!isEncoded(start, end))
+			return value;
+
+		try {
+			return URLDecoder.decode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		} catch (IllegalArgumentException e) {
+			// malformed escape, lazy decoding cannot fail on an access to a parameter
+			return value;
+		}
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.processor;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import org.easymock.Mock;
+import org.joyrest.test.unit.annotation.MockLatency;
+import org.joyrest.test.unit.easymock.GeneratedInjector;
+
+/**
+ * Optional annotation processor generating {@link GeneratedInjector} for test classes annotated by
+ * {@link org.joyrest.test.unit.annotation.TestedController} or {@link org.joyrest.test.unit.annotation.TestedExceptionHandler}.
+ * The processor is not registered automatically, it has to be enabled in the compiler configuration.
+ *
+ * Injector is generated only if all mocks, the tested class and its injected fields are accessible
+ * from the package of the test class and no mock has {@link MockLatency}, otherwise the rules fall back
+ * to the reflection.
+ */
+@SupportedAnnotationTypes({
+	"org.joyrest.test.unit.annotation.TestedController",
+	"org.joyrest.test.unit.annotation.TestedExceptionHandler"})
+public class InjectorProcessor extends AbstractProcessor {
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations)
+			for (TypeElement test : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation)))
+				process(test, annotation);
+
+		return false;
+	}
+
+	private void process(TypeElement test, TypeElement annotation) {
+		TypeElement subject = getSubject(test, annotation);
+		if (isNull(subject))
+			return;
+
+		try {
+			String source = new InjectorSource(test, subject).create();
+			Writer writer = processingEnv.getFiler()
+				.createSourceFile(test.getQualifiedName() + GeneratedInjector.SUFFIX, test)
+				.openWriter();
+			try {
+				writer.write(source);
+			} finally {
+				writer.close();
+			}
+		} catch (UnsupportedInjectionException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+				format("Injector is not generated, reflection will be used: %s", e.getMessage()), test);
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				format("Error occurred during generating an injector: %s", e.getMessage()), test);
+		}
+	}
+
+	private static TypeElement getSubject(TypeElement test, TypeElement annotation) {
+		for (AnnotationMirror mirror : test.getAnnotationMirrors()) {
+			if (!mirror.getAnnotationType().asElement().equals(annotation))
+				continue;
+
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet())
+				if (entry.getKey().getSimpleName().contentEquals("value"))
+					return (TypeElement) ((DeclaredType) entry.getValue().getValue()).asElement();
+		}
+		return null;
+	}
+
+	private class InjectorSource {
+
+		private final TypeElement test;
+
+		private final TypeElement subject;
+
+		private final String packageName;
+
+		private final List<VariableElement> mocks = new ArrayList<>();
+
+		private final Map<VariableElement, VariableElement> bindings = new LinkedHashMap<>();
+
+		private InjectorSource(TypeElement test, TypeElement subject) {
+			this.test = test;
+			this.subject = subject;
+			this.packageName = packageOf(test);
+		}
+
+		private String create() {
+			if (test.getNestingKind() != NestingKind.TOP_LEVEL)
+				throw new UnsupportedInjectionException("test class is not a top level class");
+
+			if (!isAccessible(subject) || !hasAccessibleConstructor(subject))
+				throw new UnsupportedInjectionException(format("class '%s' cannot be instantiated", subject));
+
+			for (VariableElement field : ElementFilter.fieldsIn(test.getEnclosedElements()))
+				if (nonNull(field.getAnnotation(Mock.class)))
+					mocks.add(checkAccessible(field, test));
+
+			for (VariableElement mock : mocks)
+				if (nonNull(mock.getAnnotation(MockLatency.class)))
+					throw new UnsupportedInjectionException(format("mock '%s' has a latency behavior", mock));
+
+			bind();
+			return write();
+		}
+
+		private void bind() {
+			List<VariableElement> fields = new ArrayList<>();
+			for (VariableElement field : ElementFilter.fieldsIn(subject.getEnclosedElements()))
+				if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.FINAL))
+					fields.add(field);
+
+			for (VariableElement mock : mocks) {
+				String qualifier = mock.getAnnotation(Mock.class).fieldName();
+				if (qualifier.isEmpty())
+					continue;
+
+				VariableElement field = fields.stream()
+					.filter(candidate -> candidate.getSimpleName().contentEquals(qualifier))
+					.filter(candidate -> isAssignable(mock.asType(), candidate.asType()))
+					.findFirst()
+					.orElseThrow(() -> new UnsupportedInjectionException(format("unsatisfied qualifier '%s'", qualifier)));
+
+				bindings.put(checkAccessible(field, subject), mock);
+				fields.remove(field);
+			}
+
+			for (VariableElement field : fields) {
+				VariableElement assigned = null;
+				for (VariableElement mock : mocks) {
+					if (!mock.getAnnotation(Mock.class).fieldName().isEmpty() || !isAssignable(mock.asType(), field.asType()))
+						continue;
+
+					if (nonNull(assigned))
+						throw new UnsupportedInjectionException(format("at least two mocks can be assigned to '%s'", field));
+
+					assigned = mock;
+				}
+
+				if (nonNull(assigned))
+					bindings.put(checkAccessible(field, subject), assigned);
+			}
+		}
+
+		private String write() {
+			String testName = test.getQualifiedName().toString();
+			String subjectName = subject.getQualifiedName().toString();
+
+			StringBuilder source = new StringBuilder();
+			if (!packageName.isEmpty())
+				source.append("package ").append(packageName).append(";\n\n");
+
+			source.append("public final class ").append(test.getSimpleName()).append(GeneratedInjector.SUFFIX)
+				.append(" implements ").append(GeneratedInjector.class.getCanonicalName())
+				.append("<").append(testName).append("> {\n\n")
+
+				.append("\t@Override\n")
+				.append("\tpublic Object createSubject() {\n")
+				.append("\t\treturn new ").append(subjectName).append("();\n")
+				.append("\t}\n\n")
+
+				.append("\t@Override\n")
+				.append("\t@SuppressWarnings(\"unchecked\")\n")
+				.append("\tpublic void injectMocks(").append(testName).append(" test, Object subject) {\n")
+				.append("\t\t").append(subjectName).append(" target = (").append(subjectName).append(") subject;\n");
+
+			for (VariableElement mock : mocks) {
+				Mock annotation = mock.getAnnotation(Mock.class);
+				source.append("\t\ttest.").append(mock.getSimpleName()).append(" = test.createMock(")
+					.append(annotation.name().isEmpty() ? "(String) null" : literal(annotation.name())).append(", ")
+					.append(Mock.class.getPackage().getName()).append(".MockType.").append(annotation.type().name()).append(", ")
+					.append(processingEnv.getTypeUtils().erasure(mock.asType())).append(".class);\n");
+			}
+
+			for (Map.Entry<VariableElement, VariableElement> binding : bindings.entrySet())
+				source.append("\t\ttarget.").append(binding.getKey().getSimpleName())
+					.append(" = test.").append(binding.getValue().getSimpleName()).append(";\n");
+
+			return source.append("\t}\n}\n").toString();
+		}
+
+		private boolean isAssignable(TypeMirror mock, TypeMirror field) {
+			return processingEnv.getTypeUtils().isAssignable(
+				processingEnv.getTypeUtils().erasure(mock), processingEnv.getTypeUtils().erasure(field));
+		}
+
+		private VariableElement checkAccessible(VariableElement field, TypeElement owner) {
+			Set<Modifier> modifiers = field.getModifiers();
+			boolean samePackage = packageOf(owner).equals(packageName);
+			if (modifiers.contains(Modifier.PRIVATE) || (!modifiers.contains(Modifier.PUBLIC) && !samePackage))
+				throw new UnsupportedInjectionException(format("field '%s' of class '%s' is not accessible", field, owner));
+
+			return field;
+		}
+
+		private boolean isAccessible(TypeElement type) {
+			for (Element current = type; current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+				Set<Modifier> modifiers = current.getModifiers();
+				if (modifiers.contains(Modifier.PRIVATE) || (modifiers.contains(Modifier.ABSTRACT) && current == type))
+					return false;
+
+				if (!modifiers.contains(Modifier.PUBLIC) && !packageOf(type).equals(packageName))
+					return false;
+
+				if (current != type && !modifiers.contains(Modifier.STATIC) && current.getKind().isClass())
+					return false;
+			}
+			return true;
+		}
+
+		private boolean hasAccessibleConstructor(TypeElement type) {
+			List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+			return constructors.stream()
+				.filter(constructor -> constructor.getParameters().isEmpty())
+				.anyMatch(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC)
+					|| (!constructor.getModifiers().contains(Modifier.PRIVATE) && packageOf(type).equals(packageName)));
+		}
+
+		private String packageOf(TypeElement type) {
+			PackageElement element = processingEnv.getElementUtils().getPackageOf(type);
+			return element.isUnnamed() ? "" : element.getQualifiedName().toString();
+		}
+
+		private String literal(String value) {
+			return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+		}
+	}
+
+	private static class UnsupportedInjectionException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private UnsupportedInjectionException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.replay;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.joyrest.model.http.HeaderName;
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.test.unit.body.ByteBufferBody;
+import org.joyrest.test.unit.model.MockRequest;
+
+/**
+ * Formats of captured traffic, every line of a capture is one request. Blank lines and lines starting
+ * with {@code #} are skipped.
+ */
+public enum CaptureFormat {
+
+	/**
+	 * One JSON object per line, e.g. <pre>
+	 * {"method": "POST", "path": "/users", "query": "notify=true",
+	 *  "headers": {"Content-Type": "application/json"}, "body": "{\"name\": \"Petr\"}"}
+	 * </pre>
+	 * The path can contain the query as well, query and body are optional. A body which is a JSON object
+	 * or an array is used as its JSON text, header values cannot be objects or arrays.
+	 */
+	NDJSON {
+		@Override
+		MockRequest<?> parseLine(String line) {
+			Map<String, Object> captured = JsonLine.parseObject(line);
+
+			Object path = captured.get("path");
+			if (!(path instanceof String))
+				throw new IllegalArgumentException("Captured request does not contain a path.");
+
+			Object query = captured.get("query");
+			MockRequest<?> request = MockRequest.fromUri(method(captured.get("method")),
+				query instanceof String && !((String) query).isEmpty() ? path + "?" + query : (String) path);
+
+			Object headers = captured.get("headers");
+			if (headers instanceof Map)
+				((Map<?, ?>) headers).forEach((name, value) -> {
+					if (value instanceof Map || value instanceof List)
+						throw new IllegalArgumentException(format("Value of the header '%s' cannot be a JSON object or an array.", name));
+
+					if (nonNull(value))
+						request.getHeaders().put(HeaderName.of(String.valueOf(name)), String.valueOf(value));
+				});
+
+			Object body = captured.get("body");
+			if (nonNull(body))
+				request.setBody(ByteBufferBody.of(body instanceof String ? (String) body : JsonLine.write(body)));
+
+			return request;
+		}
+	},
+
+	/**
+	 * Common or combined log format, only the request line is used, e.g.
+	 * {@code 127.0.0.1 - - [10/Oct/2015:13:55:36 +0200] "GET /users/5?fields=name HTTP/1.1" 200 2326}.
+	 */
+	ACCESS_LOG {
+		@Override
+		MockRequest<?> parseLine(String line) {
+			int start = line.indexOf('"');
+			int end = start < 0 ? -1 : line.indexOf('"', start + 1);
+			if (end < 0)
+				throw new IllegalArgumentException("Access log line does not contain a quoted request line.");
+
+			String[] requestLine = line.substring(start + 1, end).trim().split("\\s+");
+			if (requestLine.length < 2)
+				throw new IllegalArgumentException(format("Invalid request line '%s'.", line.substring(start + 1, end)));
+
+			return MockRequest.fromUri(method(requestLine[0]), requestLine[1]);
+		}
+	};
+
+	abstract MockRequest<?> parseLine(String line);
+
+	/**
+	 * Returns a request parsed from the line, or {@code null} if the line is skipped.
+	 */
+	public MockRequest<?> parse(String line) {
+		String trimmed = line.trim();
+		if (trimmed.isEmpty() || trimmed.startsWith("#"))
+			return null;
+
+		return parseLine(trimmed);
+	}
+
+	private static HttpMethod method(Object method) {
+		if (isNull(method))
+			throw new IllegalArgumentException("Captured request does not contain a method.");
+
+		try {
+			return HttpMethod.valueOf(String.valueOf(method).toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(format("Unknown HTTP method '%s'.", method), e);
+		}
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.replay;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal parser of one JSON document of a capture line. Objects are parsed into maps, arrays into lists,
+ * strings are unescaped and other values are kept as {@link Literal} ({@code null} is {@code null}).
+ * Parsed values can be written back into JSON.
+ */
+final class JsonLine {
+
+	private final String json;
+
+	private int position = 0;
+
+	private JsonLine(String json) {
+		this.json = json;
+	}
+
+	static Map<String, Object> parseObject(String json) {
+		JsonLine parser = new JsonLine(json);
+		parser.skipWhitespace();
+		Map<String, Object> object = parser.object();
+		parser.skipWhitespace();
+		if (parser.position != json.length())
+			throw parser.error("end of the line");
+		return object;
+	}
+
+	private Object value() {
+		skipWhitespace();
+		if (position >= json.length())
+			throw error("value");
+
+		char c = json.charAt(position);
+		if (c == '{')
+			return object();
+		if (c == '[')
+			return array();
+		if (c == '"')
+			return string();
+
+		int start = position;
+		while (position < json.length() && ",}] \t\r\n".indexOf(json.charAt(position)) < 0)
+			position++;
+
+		String literal = json.substring(start, position);
+		if (literal.isEmpty())
+			throw error("value");
+		return "null".equals(literal) ? null : new Literal(literal);
+	}
+
+	private Map<String, Object> object() {
+		expect('{');
+		Map<String, Object> object = new LinkedHashMap<>();
+		skipWhitespace();
+		if (peek() == '}') {
+			position++;
+			return object;
+		}
+
+		do {
+			skipWhitespace();
+			String name = string();
+			skipWhitespace();
+			expect(':');
+			object.put(name, value());
+			skipWhitespace();
+		} while (next(','));
+
+		expect('}');
+		return object;
+	}
+
+	private List<Object> array() {
+		expect('[');
+		List<Object> array = new ArrayList<>();
+		skipWhitespace();
+		if (peek() == ']') {
+			position++;
+			return array;
+		}
+
+		do {
+			array.add(value());
+			skipWhitespace();
+		} while (next(','));
+
+		expect(']');
+		return array;
+	}
+
+	private String string() {
+		expect('"');
+		StringBuilder builder = null;
+		int start = position;
+		while (position < json.length()) {
+			char c = json.charAt(position++);
+			if (c == '"')
+				return isNull(builder) ? json.substring(start, position - 1) : builder.toString();
+
+			if (c == '\\') {
+				if (isNull(builder))
+					builder = new StringBuilder(json.substring(start, position - 1));
+				builder.append(escaped());
+			} else if (nonNull(builder)) {
+				builder.append(c);
+			}
+		}
+		throw error("end of the string");
+	}
+
+	private char escaped() {
+		if (position >= json.length())
+			throw error("escaped character");
+
+		char c = json.charAt(position++);
+		switch (c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				if (position + 4 > json.length())
+					throw error("unicode escape");
+				position += 4;
+				return (char) Integer.parseInt(json.substring(position - 4, position), 16);
+			default:
+				return c;
+		}
+	}
+
+	private char peek() {
+		return position < json.length() ? json.charAt(position) : 0;
+	}
+
+	private boolean next(char c) {
+		if (peek() != c)
+			return false;
+		position++;
+		return true;
+	}
+
+	private void expect(char c) {
+		if (!next(c))
+			throw error("'" + c + "'");
+	}
+
+	private void skipWhitespace() {
+		while (position < json.length() && Character.isWhitespace(json.charAt(position)))
+			position++;
+	}
+
+	static String write(Object value) {
+		StringBuilder builder = new StringBuilder();
+		write(value, builder);
+		return builder.toString();
+	}
+
+	private static void write(Object value, StringBuilder builder) {
+		if (isNull(value)) {
+			builder.append("null");
+		} else if (value instanceof Map) {
+			builder.append('{');
+			String separator = "";
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				builder.append(separator);
+				writeString(String.valueOf(entry.getKey()), builder);
+				builder.append(':');
+				write(entry.getValue(), builder);
+				separator = ",";
+			}
+			builder.append('}');
+		} else if (value instanceof List) {
+			builder.append('[');
+			String separator = "";
+			for (Object element : (List<?>) value) {
+				builder.append(separator);
+				write(element, builder);
+				separator = ",";
+			}
+			builder.append(']');
+		} else if (value instanceof Literal) {
+			builder.append(value);
+		} else {
+			writeString(String.valueOf(value), builder);
+		}
+	}
+
+	private static void writeString(String value, StringBuilder builder) {
+		builder.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					builder.append("\\\"");
+					break;
+				case '\\':
+					builder.append("\\\\");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				default:
+					if (c < 0x20)
+						builder.append(format("\\u%04x", (int) c));
+					else
+						builder.append(c);
+			}
+		}
+		builder.append('"');
+	}
+
+	private IllegalArgumentException error(String expected) {
+		return new IllegalArgumentException(format("Invalid JSON, expected %s at the position %d.", expected, position));
+	}
+
+	/**
+	 * Unquoted value, e.g. a number or a boolean, kept as its literal text.
+	 */
+	static final class Literal {
+
+		private final String text;
+
+		private Literal(String text) {
+			this.text = text;
+		}
+
+		@Override
+		public String toString() {
+			return text;
+		}
+	}
+}
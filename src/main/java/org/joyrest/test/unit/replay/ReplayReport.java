@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.replay;
+
+import static java.lang.String.format;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.joyrest.model.http.HttpStatus;
+import org.joyrest.test.unit.metrics.LatencyHistogram;
+import org.joyrest.test.unit.replay.ReplayRunner.RouteAggregate;
+
+/**
+ * Aggregated result of a replay. Responses without any status are not part of the status distribution,
+ * failed requests (unparsable lines, unresolved routes or exceptions) are not part of route distributions.
+ */
+public final class ReplayReport {
+
+	private final long requests;
+
+	private final long durationNanos;
+
+	private final Map<HttpStatus, Long> statuses = new TreeMap<>(Comparator.comparing(HttpStatus::toString));
+
+	private final Map<String, Long> routes = new TreeMap<>();
+
+	private final Map<String, LatencyHistogram> latencies = new TreeMap<>();
+
+	private final List<String> failures;
+
+	private final long failureCount;
+
+	ReplayReport(long requests, long durationNanos, Map<HttpStatus, ? extends Number> statuses,
+			Map<String, RouteAggregate> routes, List<String> failures, long failureCount) {
+		this.requests = requests;
+		this.durationNanos = durationNanos;
+		statuses.forEach((status, count) -> this.statuses.put(status, count.longValue()));
+		routes.forEach((route, aggregate) -> {
+			this.routes.put(route, aggregate.count.sum());
+			this.latencies.put(route, aggregate.latency);
+		});
+		this.failures = Collections.unmodifiableList(failures);
+		this.failureCount = failureCount;
+	}
+
+	public long getRequests() {
+		return requests;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	public Map<HttpStatus, Long> countByStatus() {
+		return Collections.unmodifiableMap(statuses);
+	}
+
+	public Map<String, Long> countByRoute() {
+		return Collections.unmodifiableMap(routes);
+	}
+
+	public Map<String, LatencyHistogram> getLatencies() {
+		return Collections.unmodifiableMap(latencies);
+	}
+
+	/**
+	 * Returns only first collected failures, use {@link #getFailureCount()} to get the number of all of them.
+	 */
+	public List<String> getFailures() {
+		return failures;
+	}
+
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	public ReplayReport assertNoFailures() {
+		if (failureCount > 0)
+			throw new AssertionError(format("Replay failed on %d of %d requests.%n%s", failureCount, requests, this));
+
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder()
+			.append(format("requests=%d, duration=%dms, failures=%d, statuses=%s",
+				requests, TimeUnit.NANOSECONDS.toMillis(durationNanos), failureCount, statuses));
+
+		latencies.forEach((route, latency) -> builder.append(format("%n%s: count=%d, p50=%dus, p99=%dus, max=%dus",
+			route, routes.get(route), micros(latency.getValueAtPercentile(50)), micros(latency.getValueAtPercentile(99)),
+			micros(latency.getMax()))));
+
+		failures.forEach(failure -> builder.append(format("%n%s", failure)));
+		return builder.toString();
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
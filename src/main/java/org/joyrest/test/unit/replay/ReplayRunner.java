@@ -0,0 +1,227 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.replay;
+
+import static java.lang.String.format;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.joyrest.model.http.HttpStatus;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.test.unit.metrics.LatencyHistogram;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+
+/**
+ * Replays captured traffic line by line. The capture is read by the calling thread into a bounded queue
+ * and the given number of workers dispatch the requests, hence only a few requests are held in memory
+ * regardless the size of the capture. Statuses, routes and latencies of routes are aggregated during the replay.
+ */
+public class ReplayRunner {
+
+	private static final int MAX_COLLECTED_FAILURES = 100;
+
+	private static final int QUEUED_PER_WORKER = 16;
+
+	private static final long END_OFFER_MILLIS = 100;
+
+	private static final Replayed END = new Replayed(-1, null);
+
+	private final int parallelism;
+
+	private final ThreadFactory threadFactory;
+
+	private final Map<HttpStatus, LongAdder> statuses = new ConcurrentHashMap<>();
+
+	private final Map<String, RouteAggregate> routes = new ConcurrentHashMap<>();
+
+	private final List<String> failures = new ArrayList<>();
+
+	private final AtomicLong failureCount = new AtomicLong();
+
+	private final LongAdder requests = new LongAdder();
+
+	public ReplayRunner(int parallelism, ThreadFactory threadFactory) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive.");
+
+		this.parallelism = parallelism;
+		this.threadFactory = requireNonNull(threadFactory, "Thread factory cannot be null.");
+	}
+
+	public ReplayReport run(BufferedReader capture, CaptureFormat format, Dispatcher dispatcher)
+			throws IOException, InterruptedException {
+		BlockingQueue<Replayed> queue = new ArrayBlockingQueue<>(parallelism * QUEUED_PER_WORKER);
+		Thread[] workers = new Thread[parallelism];
+		for (int i = 0; i < parallelism; i++) {
+			workers[i] = threadFactory.newThread(new Worker(queue, dispatcher));
+			workers[i].start();
+		}
+
+		long started = System.nanoTime();
+		boolean completed = false;
+		try {
+			String line;
+			long number = 0;
+			while (nonNull(line = capture.readLine())) {
+				number++;
+				MockRequest<?> request;
+				try {
+					request = format.parse(line);
+				} catch (RuntimeException e) {
+					requests.increment();
+					failure(number, e);
+					continue;
+				}
+
+				if (nonNull(request))
+					queue.put(new Replayed(number, request));
+			}
+			completed = true;
+		} finally {
+			stop(queue, workers, completed);
+		}
+		long duration = System.nanoTime() - started;
+
+		synchronized (this) {
+			return new ReplayReport(requests.sum(), duration, statuses, routes, new ArrayList<>(failures),
+				failureCount.get());
+		}
+	}
+
+	/**
+	 * Ends all workers, pending requests are dropped and workers are interrupted if the capture was not read
+	 * completely. Ends are not offered to workers which are not alive anymore.
+	 */
+	private static void stop(BlockingQueue<Replayed> queue, Thread[] workers, boolean completed) throws InterruptedException {
+		if (!completed) {
+			queue.clear();
+			for (Thread worker : workers)
+				worker.interrupt();
+		}
+
+		int ended = 0;
+		while (ended < workers.length && isAnyAlive(workers))
+			if (queue.offer(END, END_OFFER_MILLIS, TimeUnit.MILLISECONDS))
+				ended++;
+
+		for (Thread worker : workers)
+			worker.join();
+	}
+
+	private static boolean isAnyAlive(Thread[] workers) {
+		for (Thread worker : workers)
+			if (worker.isAlive())
+				return true;
+		return false;
+	}
+
+	private synchronized void failure(long line, Throwable exception) {
+		if (failureCount.incrementAndGet() <= MAX_COLLECTED_FAILURES)
+			failures.add(format("line %d: %s", line, exception));
+	}
+
+	/**
+	 * Dispatches the request and returns its route.
+	 */
+	@FunctionalInterface
+	public interface Dispatcher {
+
+		InternalRoute dispatch(MockRequest<?> request, MockResponse<?> response);
+
+	}
+
+	static final class RouteAggregate {
+
+		final LongAdder count = new LongAdder();
+
+		final LatencyHistogram latency = new LatencyHistogram();
+
+	}
+
+	private static final class Replayed {
+
+		private final long line;
+
+		private final MockRequest<?> request;
+
+		private Replayed(long line, MockRequest<?> request) {
+			this.line = line;
+			this.request = request;
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		private final BlockingQueue<Replayed> queue;
+
+		private final Dispatcher dispatcher;
+
+		private Worker(BlockingQueue<Replayed> queue, Dispatcher dispatcher) {
+			this.queue = queue;
+			this.dispatcher = dispatcher;
+		}
+
+		@Override
+		public void run() {
+			MockResponse<?> response = new MockResponse<>();
+			while (true) {
+				Replayed replayed;
+				try {
+					replayed = queue.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+
+				if (replayed == END)
+					return;
+
+				requests.increment();
+				response.reset();
+				try {
+					long begin = System.nanoTime();
+					InternalRoute route = dispatcher.dispatch(replayed.request, response);
+					long latency = System.nanoTime() - begin;
+
+					RouteAggregate aggregate = routes.computeIfAbsent(
+						route.getHttpMethod() + " " + route.getPath(), key -> new RouteAggregate());
+					aggregate.count.increment();
+					aggregate.latency.record(latency);
+
+					HttpStatus status = response.getStatus();
+					if (nonNull(status))
+						statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+				} catch (Throwable e) {
+					failure(replayed.line, e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.routing;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.joyrest.exception.type.RestException.notFoundSupplier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.model.request.InternalRequest;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.routing.PathComparator;
+import org.joyrest.routing.RoutePart;
+import org.joyrest.routing.matcher.RequestMatcher;
+
+/**
+ * Precompiled index of routes in a form of a segment trie. Every node contains literal branches and
+ * one branch for path params, leaves contain routes dispatched according to the http method.
+ *
+ * Found candidates are still confirmed by {@link PathComparator} and {@link RequestMatcher} and
+ * the route with the lowest position in the original collection wins, hence the result is
+ * the same as the linear scan over the collection.
+ */
+public class RouteIndex {
+
+	private static final PathComparator pathComparator = new PathComparator();
+
+	private final Node root = new Node();
+
+	public RouteIndex(Collection<InternalRoute> routes) {
+		int position = 0;
+		for (InternalRoute route : routes)
+			insert(new IndexedRoute(route, position++));
+	}
+
+	private void insert(IndexedRoute indexed) {
+		Node node = root;
+		for (RoutePart<?> part : indexed.route.getRouteParts())
+			node = node.child(part);
+
+		node.add(indexed);
+	}
+
+	public InternalRoute resolve(InternalRequest<?> request) {
+		List<Node> leaves = new ArrayList<>();
+		collect(root, request.getPathParts(), 0, leaves);
+
+		boolean pathFound = false;
+		IndexedRoute resolved = null;
+		for (Node leaf : leaves) {
+			if (!pathFound)
+				pathFound = leaf.routes.stream()
+					.anyMatch(indexed -> pathComparator.test(indexed.route, request));
+
+			List<IndexedRoute> candidates = leaf.methods.get(request.getMethod());
+			if (isNull(candidates))
+				continue;
+
+			for (IndexedRoute indexed : candidates)
+				if (isNull(resolved) || indexed.position < resolved.position)
+					if (pathComparator.test(indexed.route, request) && RequestMatcher.matchHttpMethod(indexed.route, request)) {
+						resolved = indexed;
+						break;
+					}
+		}
+
+		if (!pathFound)
+			throw notFoundSupplier(format(
+				"There is no route suitable for path [%s]",
+				request.getPath())).get();
+
+		if (isNull(resolved))
+			throw notFoundSupplier(format(
+				"There is no route suitable for path [%s], method [%s]",
+				request.getPath(), request.getMethod())).get();
+
+		return resolved.route;
+	}
+
+	private static void collect(Node node, List<String> pathParts, int index, List<Node> leaves) {
+		if (index == pathParts.size()) {
+			if (!node.routes.isEmpty())
+				leaves.add(node);
+			return;
+		}
+
+		Node literal = node.literals.get(pathParts.get(index));
+		if (nonNull(literal))
+			collect(literal, pathParts, index + 1, leaves);
+
+		if (nonNull(node.param))
+			collect(node.param, pathParts, index + 1, leaves);
+	}
+
+	private static final class IndexedRoute {
+
+		private final InternalRoute route;
+
+		private final int position;
+
+		private IndexedRoute(InternalRoute route, int position) {
+			this.route = route;
+			this.position = position;
+		}
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> literals = new HashMap<>();
+
+		private Node param = null;
+
+		private final List<IndexedRoute> routes = new ArrayList<>();
+
+		private final Map<HttpMethod, List<IndexedRoute>> methods = new EnumMap<>(HttpMethod.class);
+
+		private Node child(RoutePart<?> part) {
+			if (part.getType() == RoutePart.Type.PARAM) {
+				if (isNull(param))
+					param = new Node();
+				return param;
+			}
+
+			return literals.computeIfAbsent(part.getValue(), value -> new Node());
+		}
+
+		private void add(IndexedRoute indexed) {
+			routes.add(indexed);
+			methods.computeIfAbsent(indexed.route.getHttpMethod(), method -> new ArrayList<>())
+				.add(indexed);
+		}
+	}
+}
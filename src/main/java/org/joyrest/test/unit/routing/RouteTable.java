@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.routing;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.Set;
+
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.routing.InternalRoute;
+
+/**
+ * Keeps initialized routes of the tested controller to avoid re-registering them on every call.
+ * Routes are reused as long as the same controller instance and controller path are used.
+ */
+public class RouteTable {
+
+	private ControllerConfiguration controller = null;
+
+	private String controllerPath = null;
+
+	private Set<InternalRoute> routes = null;
+
+	private RouteIndex index = null;
+
+	private long avoidedInitializations = 0;
+
+	public Set<InternalRoute> getRoutes(ControllerConfiguration controller, String controllerPath) {
+		requireNonNull(controller, "Controller cannot be null.");
+
+		if (isCached(controller, controllerPath)) {
+			avoidedInitializations++;
+			return routes;
+		}
+
+		controller.initialize();
+		this.routes = controller.getRoutes();
+		this.index = new RouteIndex(routes);
+		this.controller = controller;
+		this.controllerPath = controllerPath;
+		return routes;
+	}
+
+	private boolean isCached(ControllerConfiguration controller, String controllerPath) {
+		return nonNull(routes)
+			&& this.controller == controller
+			&& Objects.equals(this.controllerPath, controllerPath);
+	}
+
+	public RouteIndex getIndex() {
+		return index;
+	}
+
+	public void invalidate() {
+		this.routes = null;
+		this.index = null;
+		this.controller = null;
+		this.controllerPath = null;
+	}
+
+	public long getAvoidedInitializations() {
+		return avoidedInitializations;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.rule;
+
+import static java.util.Objects.isNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.test.unit.routing.RouteTable;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Keeps controllers and their route tables of test classes with {@link org.joyrest.test.unit.annotation.Lifecycle#PER_CLASS}
+ * lifecycle, everything belonging to a test class is released after all its test methods are finished.
+ */
+public class ControllerClassRule implements TestRule {
+
+	private final Map<Class<?>, ClassScope> scopes = new ConcurrentHashMap<>();
+
+	@Override
+	public Statement apply(Statement original, Description description) {
+		return new ControllerClassStatement(original, description.getTestClass());
+	}
+
+	private class ControllerClassStatement extends Statement {
+
+		private final Statement originalStatement;
+
+		private final Class<?> testClass;
+
+		public ControllerClassStatement(Statement originalStatement, Class<?> testClass) {
+			this.originalStatement = originalStatement;
+			this.testClass = testClass;
+		}
+
+		@Override
+		public void evaluate() throws Throwable {
+			try {
+				originalStatement.evaluate();
+			} finally {
+				scopes.remove(testClass);
+			}
+		}
+	}
+
+	public ControllerConfiguration getController(Class<?> testClass, Supplier<ControllerConfiguration> factory) {
+		ClassScope scope = getScope(testClass);
+		synchronized (scope) {
+			if (isNull(scope.controller))
+				scope.controller = factory.get();
+
+			return scope.controller;
+		}
+	}
+
+	public RouteTable getRouteTable(Class<?> testClass) {
+		return getScope(testClass).routeTable;
+	}
+
+	private ClassScope getScope(Class<?> testClass) {
+		return scopes.computeIfAbsent(testClass, clazz -> new ClassScope());
+	}
+
+	private static final class ClassScope {
+
+		private final RouteTable routeTable = new RouteTable();
+
+		private ControllerConfiguration controller = null;
+	}
+}
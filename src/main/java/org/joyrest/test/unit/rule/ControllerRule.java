@@ -16,16 +16,25 @@
 package org.joyrest.test.unit.rule;
 
 import static java.lang.String.format;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import java.util.Arrays;
+import java.util.Optional;
 
 import org.easymock.EasyMockSupport;
 import org.easymock.TestSubject;
 import org.joyrest.routing.ControllerConfiguration;
 import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.annotation.LatencyBudget;
+import org.joyrest.test.unit.annotation.Lifecycle;
 import org.joyrest.test.unit.annotation.TestedController;
+import org.joyrest.test.unit.easymock.GeneratedInjector;
+import org.joyrest.test.unit.easymock.GeneratedInjectors;
 import org.joyrest.test.unit.easymock.Injector;
+import org.joyrest.test.unit.easymock.MockBehavior;
+import org.joyrest.test.unit.easymock.MockBehaviors;
+import org.joyrest.test.unit.routing.RouteTable;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
@@ -34,27 +43,43 @@ public class ControllerRule implements TestRule {
 
 	private final ControllerUnitTest test;
 
+	private final ControllerClassRule classRule;
+
+	private RouteTable routeTable = new RouteTable();
+
 	private String controllerPath = "";
 
 	private ControllerConfiguration controller = null;
 
 	private boolean annotationInitialized = false;
 
+	private final MockBehaviors mockBehaviors = new MockBehaviors();
+
+	private boolean mocksInjected = false;
+
 	public ControllerRule(ControllerUnitTest test) {
+		this(test, null);
+	}
+
+	public ControllerRule(ControllerUnitTest test, ControllerClassRule classRule) {
 		this.test = test;
+		this.classRule = classRule;
 	}
 
 	@Override
 	public Statement apply(Statement original, Description description) {
-		return new ControllerStatement(original);
+		return new ControllerStatement(original, description.getAnnotation(LatencyBudget.class));
 	}
 
 	private class ControllerStatement extends Statement {
 
 		private final Statement originalStatement;
 
-		public ControllerStatement(Statement originalStatement) {
+		private final LatencyBudget latencyBudget;
+
+		public ControllerStatement(Statement originalStatement, LatencyBudget latencyBudget) {
 			this.originalStatement = originalStatement;
+			this.latencyBudget = latencyBudget;
 		}
 
 		@Override
@@ -64,8 +89,12 @@ public class ControllerRule implements TestRule {
 			if (!annotationInitialized)
 				if (containsTestSubject(test.getClass()))
 					EasyMockSupport.injectMocks(test);
+			mocksInjected = true;
 
-			originalStatement.evaluate();
+			if (nonNull(latencyBudget))
+				new LatencyBudgetRunner(latencyBudget, test).run(originalStatement);
+			else
+				originalStatement.evaluate();
 		}
 
 		private void initControllerFromAnnotation() {
@@ -73,13 +102,36 @@ public class ControllerRule implements TestRule {
 
 			if (nonNull(annotation)) {
 				controllerPath = annotation.controllerPath();
-				controller = getController(annotation.value());
+				Optional<GeneratedInjector<EasyMockSupport>> injector = GeneratedInjectors.find(test.getClass());
+				if (annotation.lifecycle() == Lifecycle.PER_CLASS) {
+					if (isNull(classRule))
+						throw new RuntimeException(format("'%s' lifecycle requires '%s' registered as a class rule.",
+							Lifecycle.PER_CLASS, ControllerClassRule.class.getCanonicalName()));
+
+					controller = classRule.getController(test.getClass(), () -> createController(annotation, injector));
+					routeTable = classRule.getRouteTable(test.getClass());
+				} else {
+					controller = createController(annotation, injector);
+				}
+
+				// generated injectors exist only for tests without annotated behaviors
+				if (injector.isPresent() && mockBehaviors.isEmpty())
+					injector.get().injectMocks(test, controller);
+				else
+					Injector.injectMocks(test, controller, mockBehaviors);
 
-				Injector.injectMocks(test, controller);
 				annotationInitialized = true;
 			}
 		}
 
+		private ControllerConfiguration createController(TestedController annotation,
+				Optional<GeneratedInjector<EasyMockSupport>> injector) {
+			if (injector.isPresent())
+				return (ControllerConfiguration) injector.get().createSubject();
+
+			return getController(annotation.value());
+		}
+
 		private boolean containsTestSubject(Class<?> clazz) {
 			return Arrays.stream(clazz.getDeclaredFields())
 				.anyMatch(field -> nonNull(field.getAnnotation(TestSubject.class)));
@@ -103,6 +155,32 @@ public class ControllerRule implements TestRule {
 		this.controller = controller;
 	}
 
+	/**
+	 * Adds the behavior to all mocks injected into the tested controller. Behaviors have to be added before the rule
+	 * injects the mocks, e.g. in a constructor of the test, a method annotated with {@code @Before} is too late.
+	 */
+	public ControllerRule withMockBehavior(MockBehavior behavior) {
+		checkNotInjected();
+		mockBehaviors.forAll(behavior);
+		return this;
+	}
+
+	/**
+	 * Adds the behavior to the mock of the given field, the same restriction as for the default behavior applies.
+	 */
+	public ControllerRule withMockBehavior(String mockField, MockBehavior behavior) {
+		checkNotInjected();
+		mockBehaviors.forField(mockField, behavior);
+		return this;
+	}
+
+	private void checkNotInjected() {
+		if (mocksInjected)
+			throw new IllegalStateException(
+				format("Mocks of '%s' are already injected, the behavior would be ignored.",
+					test.getClass().getCanonicalName()));
+	}
+
 	public boolean isAnnotationInitialized() {
 		return annotationInitialized;
 	}
@@ -115,4 +193,8 @@ public class ControllerRule implements TestRule {
 		return controller;
 	}
 
+	public RouteTable getRouteTable() {
+		return routeTable;
+	}
+
 }
@@ -19,13 +19,19 @@ import static java.lang.String.format;
 import static java.util.Objects.nonNull;
 
 import java.util.Arrays;
+import java.util.Optional;
 
 import org.easymock.EasyMockSupport;
 import org.easymock.TestSubject;
 import org.joyrest.exception.configuration.ExceptionConfiguration;
 import org.joyrest.test.unit.HandlerUnitTest;
+import org.joyrest.test.unit.annotation.LatencyBudget;
 import org.joyrest.test.unit.annotation.TestedExceptionHandler;
+import org.joyrest.test.unit.easymock.GeneratedInjector;
+import org.joyrest.test.unit.easymock.GeneratedInjectors;
 import org.joyrest.test.unit.easymock.Injector;
+import org.joyrest.test.unit.easymock.MockBehavior;
+import org.joyrest.test.unit.easymock.MockBehaviors;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
@@ -38,21 +44,28 @@ public class HandlerRule implements TestRule {
 
 	private boolean annotationInitialized = false;
 
+	private final MockBehaviors mockBehaviors = new MockBehaviors();
+
+	private boolean mocksInjected = false;
+
 	public HandlerRule(HandlerUnitTest test) {
 		this.test = test;
 	}
 
 	@Override
 	public Statement apply(Statement original, Description description) {
-		return new HandlerStatement(original);
+		return new HandlerStatement(original, description.getAnnotation(LatencyBudget.class));
 	}
 
 	private class HandlerStatement extends Statement {
 
 		private final Statement originalStatement;
 
-		public HandlerStatement(Statement originalStatement) {
+		private final LatencyBudget latencyBudget;
+
+		public HandlerStatement(Statement originalStatement, LatencyBudget latencyBudget) {
 			this.originalStatement = originalStatement;
+			this.latencyBudget = latencyBudget;
 		}
 
 		@Override
@@ -62,17 +75,31 @@ public class HandlerRule implements TestRule {
 			if (!annotationInitialized)
 				if (containsTestSubject(test.getClass()))
 					EasyMockSupport.injectMocks(test);
+			mocksInjected = true;
 
-			originalStatement.evaluate();
+			if (nonNull(latencyBudget))
+				new LatencyBudgetRunner(latencyBudget, test).run(originalStatement);
+			else
+				originalStatement.evaluate();
 		}
 
 		private void initHandlerFromAnnotation() {
 			TestedExceptionHandler annotation = test.getClass().getAnnotation(TestedExceptionHandler.class);
 
 			if (nonNull(annotation)) {
-				configuration = getHandler(annotation.value());
+				Optional<GeneratedInjector<EasyMockSupport>> injector = GeneratedInjectors.find(test.getClass());
+				if (injector.isPresent()) {
+					configuration = (ExceptionConfiguration) injector.get().createSubject();
+				} else {
+					configuration = getHandler(annotation.value());
+				}
+
+				// generated injectors exist only for tests without annotated behaviors
+				if (injector.isPresent() && mockBehaviors.isEmpty())
+					injector.get().injectMocks(test, configuration);
+				else
+					Injector.injectMocks(test, configuration, mockBehaviors);
 
-				Injector.injectMocks(test, configuration);
 				annotationInitialized = true;
 			}
 		}
@@ -96,6 +123,32 @@ public class HandlerRule implements TestRule {
 		this.configuration = configuration;
 	}
 
+	/**
+	 * Adds the behavior to all mocks injected into the tested handler. Behaviors have to be added before the rule
+	 * injects the mocks, e.g. in a constructor of the test, a method annotated with {@code @Before} is too late.
+	 */
+	public HandlerRule withMockBehavior(MockBehavior behavior) {
+		checkNotInjected();
+		mockBehaviors.forAll(behavior);
+		return this;
+	}
+
+	/**
+	 * Adds the behavior to the mock of the given field, the same restriction as for the default behavior applies.
+	 */
+	public HandlerRule withMockBehavior(String mockField, MockBehavior behavior) {
+		checkNotInjected();
+		mockBehaviors.forField(mockField, behavior);
+		return this;
+	}
+
+	private void checkNotInjected() {
+		if (mocksInjected)
+			throw new IllegalStateException(
+				format("Mocks of '%s' are already injected, the behavior would be ignored.",
+					test.getClass().getCanonicalName()));
+	}
+
 	public boolean isAnnotationInitialized() {
 		return annotationInitialized;
 	}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.rule;
+
+import static java.lang.String.format;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.test.unit.annotation.LatencyBudget;
+import org.joyrest.test.unit.metrics.Durations;
+import org.joyrest.test.unit.metrics.LatencyHistogram;
+import org.junit.runners.model.Statement;
+
+/**
+ * Executes a test statement according to {@link LatencyBudget}. Warmup continues after the configured number
+ * of runs until medians of two consecutive windows differ by less than {@value #STABLE_DIFFERENCE_PERCENT}%
+ * (at most three times the configured warmup). Runs interrupted by a garbage collection are treated as outliers
+ * and are not part of the measured percentiles.
+ */
+class LatencyBudgetRunner {
+
+	private static final int WARMUP_WINDOW = 100;
+
+	private static final int STABLE_DIFFERENCE_PERCENT = 5;
+
+	private static final int MAX_OUTLIERS_PERCENT = 50;
+
+	private static final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+	private final LatencyBudget budget;
+
+	private final EasyMockSupport test;
+
+	LatencyBudgetRunner(LatencyBudget budget, EasyMockSupport test) {
+		this.budget = budget;
+		this.test = test;
+	}
+
+	void run(Statement statement) throws Throwable {
+		if (budget.warmup() < 0 || budget.iterations() < 1)
+			throw new IllegalArgumentException("Number of warmup iterations cannot be negative and iterations must be positive.");
+
+		long p50 = limit(budget.p50());
+		long p99 = limit(budget.p99());
+		long p999 = limit(budget.p999());
+		long max = limit(budget.max());
+
+		warmup(statement);
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		int outliers = 0;
+		for (int i = 0; i < budget.iterations(); i++) {
+			long collections = collections();
+			long latency = measure(statement);
+
+			if (collections != collections())
+				outliers++;
+			else
+				histogram.record(latency);
+		}
+
+		if (outliers * 100L > budget.iterations() * (long) MAX_OUTLIERS_PERCENT)
+			throw new AssertionError(format("Latency cannot be measured, %d of %d runs were interrupted by a garbage collection.",
+				outliers, budget.iterations()));
+
+		check("p50", budget.p50(), p50, histogram.getValueAtPercentile(50), histogram, outliers);
+		check("p99", budget.p99(), p99, histogram.getValueAtPercentile(99), histogram, outliers);
+		check("p999", budget.p999(), p999, histogram.getValueAtPercentile(99.9), histogram, outliers);
+		check("max", budget.max(), max, histogram.getMax(), histogram, outliers);
+	}
+
+	private void warmup(Statement statement) throws Throwable {
+		long[] window = new long[WARMUP_WINDOW];
+		long previousMedian = -1;
+		int maxWarmup = budget.warmup() * 3;
+
+		for (int i = 0; i < maxWarmup; i++) {
+			window[i % WARMUP_WINDOW] = measure(statement);
+
+			if (i + 1 >= budget.warmup() && (i + 1) % WARMUP_WINDOW == 0) {
+				long median = median(window);
+				if (previousMedian >= 0 && Math.abs(median - previousMedian) * 100 <= previousMedian * STABLE_DIFFERENCE_PERCENT)
+					return;
+
+				previousMedian = median;
+			}
+		}
+	}
+
+	private long measure(Statement statement) throws Throwable {
+		test.resetAll();
+		long started = System.nanoTime();
+		statement.evaluate();
+		return System.nanoTime() - started;
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	private static long collections() {
+		long count = 0;
+		for (GarbageCollectorMXBean collector : collectors)
+			count += Math.max(0, collector.getCollectionCount());
+		return count;
+	}
+
+	private static long limit(String expected) {
+		return expected.isEmpty() ? -1 : Durations.parse(expected);
+	}
+
+	private void check(String name, String expected, long limit, long measured, LatencyHistogram histogram, int outliers) {
+		if (limit < 0)
+			return;
+
+		if (measured > limit)
+			throw new AssertionError(format("Latency %s %s exceeds the budget %s (measured runs: %d, GC outliers: %d)",
+				name, formatNanos(measured), expected, histogram.getCount(), outliers));
+	}
+
+	private static String formatNanos(long nanos) {
+		if (nanos >= TimeUnit.MILLISECONDS.toNanos(1))
+			return format("%.2fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+
+		if (nanos >= TimeUnit.MICROSECONDS.toNanos(1))
+			return format("%.2fus", nanos / (double) TimeUnit.MICROSECONDS.toNanos(1));
+
+		return nanos + "ns";
+	}
+}
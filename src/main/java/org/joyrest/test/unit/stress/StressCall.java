@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.stress;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Predicate;
+
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+
+/**
+ * One call executed by a stress worker, a new instance (including its request) is expected to be created
+ * for every invocation of the supplier. Every worker reuses its own response which is reset before each call.
+ */
+public final class StressCall {
+
+	private final HttpMethod method;
+
+	private final String path;
+
+	private final MockRequest<?> request;
+
+	private Predicate<MockResponse<?>> expectation = response -> true;
+
+	private StressCall(HttpMethod method, String path, MockRequest<?> request) {
+		this.method = requireNonNull(method, "Method cannot be null.");
+		this.path = path;
+		this.request = requireNonNull(request, "Request cannot be null.");
+	}
+
+	public static StressCall of(HttpMethod method, String path, MockRequest<?> request) {
+		return new StressCall(method, path, request);
+	}
+
+	public static StressCall get(String path, MockRequest<?> request) {
+		return of(HttpMethod.GET, path, request);
+	}
+
+	public static StressCall post(String path, MockRequest<?> request) {
+		return of(HttpMethod.POST, path, request);
+	}
+
+	public static StressCall put(String path, MockRequest<?> request) {
+		return of(HttpMethod.PUT, path, request);
+	}
+
+	public static StressCall delete(String path, MockRequest<?> request) {
+		return of(HttpMethod.DELETE, path, request);
+	}
+
+	public StressCall expect(Predicate<MockResponse<?>> expectation) {
+		this.expectation = requireNonNull(expectation, "Expectation cannot be null.");
+		return this;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public MockRequest<?> getRequest() {
+		return request;
+	}
+
+	public Predicate<MockResponse<?>> getExpectation() {
+		return expectation;
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + path;
+	}
+}
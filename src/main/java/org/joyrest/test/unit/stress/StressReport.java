@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.stress;
+
+import static java.lang.String.format;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public final class StressReport {
+
+	private final int threads;
+
+	private final int iterations;
+
+	private final long durationNanos;
+
+	private final List<ThreadLatency> latencies;
+
+	private final List<Throwable> exceptions;
+
+	private final long exceptionCount;
+
+	private final List<String> mismatches;
+
+	private final long mismatchCount;
+
+	StressReport(int threads, int iterations, long durationNanos, List<ThreadLatency> latencies,
+			List<Throwable> exceptions, long exceptionCount, List<String> mismatches, long mismatchCount) {
+		this.threads = threads;
+		this.iterations = iterations;
+		this.durationNanos = durationNanos;
+		this.latencies = Collections.unmodifiableList(latencies);
+		this.exceptions = Collections.unmodifiableList(exceptions);
+		this.exceptionCount = exceptionCount;
+		this.mismatches = Collections.unmodifiableList(mismatches);
+		this.mismatchCount = mismatchCount;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public long getCalls() {
+		return (long) threads * iterations;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	public double getThroughput() {
+		return durationNanos == 0 ? 0 : getCalls() / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	public List<ThreadLatency> getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * Returns only first collected exceptions, use {@link #getExceptionCount()} to get the number of all of them.
+	 */
+	public List<Throwable> getExceptions() {
+		return exceptions;
+	}
+
+	public long getExceptionCount() {
+		return exceptionCount;
+	}
+
+	/**
+	 * Returns only first collected mismatches, use {@link #getMismatchCount()} to get the number of all of them.
+	 */
+	public List<String> getMismatches() {
+		return mismatches;
+	}
+
+	public long getMismatchCount() {
+		return mismatchCount;
+	}
+
+	public boolean isSuccessful() {
+		return exceptionCount == 0 && mismatchCount == 0;
+	}
+
+	public void assertSuccessful() {
+		if (isSuccessful())
+			return;
+
+		AssertionError error = new AssertionError(format("Stress run failed with %d exceptions and %d mismatches.%n%s",
+			exceptionCount, mismatchCount, this));
+		exceptions.forEach(error::addSuppressed);
+		throw error;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder()
+			.append(format("threads=%d, iterations=%d, duration=%dms, throughput=%.1f calls/s, exceptions=%d, mismatches=%d",
+				threads, iterations, TimeUnit.NANOSECONDS.toMillis(durationNanos), getThroughput(),
+				exceptionCount, mismatchCount));
+
+		latencies.forEach(latency -> builder.append(format("%n  ")).append(latency));
+		mismatches.forEach(mismatch -> builder.append(format("%n  mismatch: ")).append(mismatch));
+		return builder.toString();
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.stress;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.joyrest.test.unit.model.MockResponse;
+
+/**
+ * Runs calls supplied by a test from several threads at once. All workers wait for each other and start
+ * together to maximize a contention, every worker executes the given number of iterations. Latencies are recorded
+ * only for calls which did not fail.
+ */
+public class StressRunner {
+
+	private static final int MAX_COLLECTED_FAILURES = 100;
+
+	private final int threads;
+
+	private final int iterations;
+
+	private final ThreadFactory threadFactory;
+
+	private final List<Throwable> exceptions = new ArrayList<>();
+
+	private final List<String> mismatches = new ArrayList<>();
+
+	private final AtomicLong exceptionCount = new AtomicLong();
+
+	private final AtomicLong mismatchCount = new AtomicLong();
+
+	public StressRunner(int threads, int iterations, ThreadFactory threadFactory) {
+		if (threads < 1 || iterations < 1)
+			throw new IllegalArgumentException("Number of threads and iterations must be positive.");
+
+		this.threads = threads;
+		this.iterations = iterations;
+		this.threadFactory = requireNonNull(threadFactory, "Thread factory cannot be null.");
+	}
+
+	public StressReport run(Supplier<StressCall> calls, Dispatcher dispatcher) throws InterruptedException {
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean cancelled = new AtomicBoolean(true);
+		Worker[] workers = new Worker[threads];
+		Thread[] workerThreads = new Thread[threads];
+
+		long started;
+		try {
+			for (int i = 0; i < threads; i++) {
+				workers[i] = new Worker(calls, dispatcher, ready, start, cancelled);
+				workerThreads[i] = threadFactory.newThread(workers[i]);
+				workerThreads[i].start();
+			}
+
+			ready.await();
+			started = System.nanoTime();
+			cancelled.set(false);
+		} finally {
+			// already started workers cannot wait forever if the run fails or is interrupted
+			start.countDown();
+		}
+
+		for (Thread thread : workerThreads)
+			thread.join();
+		long duration = System.nanoTime() - started;
+
+		List<ThreadLatency> latencies = new ArrayList<>(threads);
+		for (Worker worker : workers)
+			latencies.add(new ThreadLatency(worker.name, worker.latencies, worker.count));
+
+		synchronized (this) {
+			return new StressReport(threads, iterations, duration, latencies,
+				new ArrayList<>(exceptions), exceptionCount.get(), new ArrayList<>(mismatches), mismatchCount.get());
+		}
+	}
+
+	private synchronized void exception(Throwable exception) {
+		if (exceptionCount.incrementAndGet() <= MAX_COLLECTED_FAILURES)
+			exceptions.add(exception);
+	}
+
+	private synchronized void mismatch(StressCall call, MockResponse<?> response) {
+		if (mismatchCount.incrementAndGet() <= MAX_COLLECTED_FAILURES)
+			mismatches.add(format("[%s] status: %s, headers: %s, entity: %s",
+				call, response.getStatus(), response.getHeaders(), response.getEntity()));
+	}
+
+	@FunctionalInterface
+	public interface Dispatcher {
+
+		void dispatch(StressCall call, MockResponse<?> response);
+
+	}
+
+	private class Worker implements Runnable {
+
+		private final Supplier<StressCall> calls;
+
+		private final Dispatcher dispatcher;
+
+		private final CountDownLatch ready;
+
+		private final CountDownLatch start;
+
+		private final AtomicBoolean cancelled;
+
+		private final long[] latencies = new long[iterations];
+
+		// Number of recorded latencies, failed calls are not recorded, read only after the worker thread is joined
+		private int count = 0;
+
+		private String name;
+
+		private Worker(Supplier<StressCall> calls, Dispatcher dispatcher, CountDownLatch ready, CountDownLatch start,
+				AtomicBoolean cancelled) {
+			this.calls = calls;
+			this.dispatcher = dispatcher;
+			this.ready = ready;
+			this.start = start;
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		public void run() {
+			name = Thread.currentThread().getName();
+			ready.countDown();
+			try {
+				start.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			if (cancelled.get())
+				return;
+
+			MockResponse<?> response = new MockResponse<>();
+			for (int i = 0; i < iterations; i++) {
+				try {
+					StressCall call = calls.get();
+					response.reset();
+					long begin = System.nanoTime();
+					dispatcher.dispatch(call, response);
+					latencies[count++] = System.nanoTime() - begin;
+
+					if (!call.getExpectation().test(response))
+						mismatch(call, response);
+				} catch (Throwable e) {
+					exception(e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.stress;
+
+import java.util.Arrays;
+
+public final class ThreadLatency {
+
+	private final String thread;
+
+	private final long[] latencies;
+
+	private final long total;
+
+	ThreadLatency(String thread, long[] latencies, int count) {
+		this.thread = thread;
+		this.latencies = Arrays.copyOf(latencies, count);
+		Arrays.sort(this.latencies);
+
+		long sum = 0;
+		for (long latency : this.latencies)
+			sum += latency;
+		this.total = sum;
+	}
+
+	public String getThread() {
+		return thread;
+	}
+
+	public int getCount() {
+		return latencies.length;
+	}
+
+	public long getMinNanos() {
+		return latencies.length == 0 ? 0 : latencies[0];
+	}
+
+	public long getMaxNanos() {
+		return latencies.length == 0 ? 0 : latencies[latencies.length - 1];
+	}
+
+	public long getMeanNanos() {
+		return latencies.length == 0 ? 0 : total / latencies.length;
+	}
+
+	public long getPercentileNanos(double percentile) {
+		if (percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+
+		if (latencies.length == 0)
+			return 0;
+
+		int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+		return latencies[Math.max(index, 0)];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: count=%d, min=%dns, mean=%dns, p50=%dns, p99=%dns, max=%dns", thread, getCount(),
+			getMinNanos(), getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99), getMaxNanos());
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.transform;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joyrest.model.http.MediaType;
+import org.joyrest.model.request.InternalRequest;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.routing.entity.Type;
+import org.joyrest.test.unit.body.RequestBody;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+import org.joyrest.transform.Reader;
+import org.joyrest.transform.Writer;
+
+/**
+ * Runs request bodies through the reader of the route for the request's content type and response entities
+ * through the writer for the first acceptable media type, in the same way as a server does. Sizes and durations
+ * are recorded per route.
+ */
+public final class RoundTrip {
+
+	private final Map<String, SerializationStats> stats = new ConcurrentHashMap<>();
+
+	/**
+	 * Reads the request entity from the request body, requests without any body keep the entity set by the test.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void read(InternalRoute route, MockRequest req) {
+		if (!route.isHasRequestBody())
+			return;
+
+		RequestBody body = req.getBody();
+		InputStream original = req.getInputStream();
+		if (isNull(original))
+			return;
+
+		Optional<MediaType> contentType = req.getContentType();
+		Reader reader = contentType.map(type -> route.getReaders().get(type)).orElse(null);
+		if (isNull(reader))
+			throw new RuntimeException(format("There is no reader for the content type '%s' on the route '%s'.",
+				contentType.orElse(null), key(route)));
+
+		CountingInputStream counting = new CountingInputStream(original);
+		req.setInputStream(counting);
+		try {
+			long start = System.nanoTime();
+			Object entity = reader.readFrom((InternalRequest<Object>) req, (Type) route.getRequestType());
+			long duration = System.nanoTime() - start;
+
+			req.setEntity(entity);
+			stats(route).recordRead(counting.count, duration);
+		} finally {
+			if (isNull(body))
+				req.setInputStream(original);
+			else
+				req.setBody(body);
+		}
+	}
+
+	/**
+	 * Writes the response entity into the output stream of the response, responses without any entity are skipped.
+	 * Accepted media types are tried in the order of the request, q-values are not taken into account. Only the full
+	 * wildcard matches any writer, a partial wildcard like {@code application/*} matches only a writer registered
+	 * for exactly that media type. The full wildcard prefers the JSON writer, otherwise the writer of the alphabetically
+	 * first media type is used.
+	 */
+	public void write(InternalRoute route, MockRequest<?> req, MockResponse<?> resp) {
+		if (!resp.getEntity().isPresent())
+			return;
+
+		Writer writer = negotiate(route, req.getAccept());
+		OutputStream original = resp.getOutputStream();
+		CountingOutputStream counting = new CountingOutputStream(original);
+		resp.setOutputStream(counting);
+		try {
+			long start = System.nanoTime();
+			writer.writeTo(resp, req);
+			long duration = System.nanoTime() - start;
+
+			stats(route).recordWrite(counting.count, duration);
+		} finally {
+			resp.setOutputStream(original);
+		}
+	}
+
+	private static Writer negotiate(InternalRoute route, List<MediaType> accept) {
+		Map<MediaType, Writer> writers = route.getWriters();
+		List<MediaType> acceptable = isNull(accept) || accept.isEmpty()
+			? Collections.singletonList(MediaType.WILDCARD) : accept;
+
+		for (MediaType mediaType : acceptable) {
+			if (MediaType.WILDCARD.equals(mediaType) && !writers.isEmpty())
+				return anyWriter(writers);
+
+			Writer writer = writers.get(mediaType);
+			if (nonNull(writer))
+				return writer;
+		}
+
+		throw new RuntimeException(format("There is no writer for the accepted media types %s on the route '%s'.",
+			acceptable, key(route)));
+	}
+
+	private static Writer anyWriter(Map<MediaType, Writer> writers) {
+		Writer json = writers.get(MediaType.JSON);
+		if (nonNull(json))
+			return json;
+
+		return writers.entrySet().stream()
+			.min(Comparator.comparing((Map.Entry<MediaType, Writer> entry) -> entry.getKey().get()))
+			.get().getValue();
+	}
+
+	public Map<String, SerializationStats> getStats() {
+		return Collections.unmodifiableMap(stats);
+	}
+
+	private SerializationStats stats(InternalRoute route) {
+		return stats.computeIfAbsent(key(route), SerializationStats::new);
+	}
+
+	private static String key(InternalRoute route) {
+		return route.getHttpMethod() + " " + route.getPath();
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private long count = 0;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0)
+				count++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			int read = super.read(bytes, offset, length);
+			if (read > 0)
+				count += read;
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count = 0;
+
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			out.write(bytes, offset, length);
+			count += length;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Petr Bouda
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.joyrest.test.unit.transform;
+
+import static java.lang.String.format;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.joyrest.test.unit.metrics.LatencyHistogram;
+
+/**
+ * Sizes and durations of reading request entities and writing response entities of one route.
+ */
+public final class SerializationStats {
+
+	private final String route;
+
+	private final LongAdder reads = new LongAdder();
+
+	private final LongAdder readBytes = new LongAdder();
+
+	private final LatencyHistogram readTime = new LatencyHistogram();
+
+	private final LongAdder writes = new LongAdder();
+
+	private final LongAdder writtenBytes = new LongAdder();
+
+	private final LatencyHistogram writeTime = new LatencyHistogram();
+
+	SerializationStats(String route) {
+		this.route = route;
+	}
+
+	void recordRead(long bytes, long nanos) {
+		reads.increment();
+		readBytes.add(bytes);
+		readTime.record(nanos);
+	}
+
+	void recordWrite(long bytes, long nanos) {
+		writes.increment();
+		writtenBytes.add(bytes);
+		writeTime.record(nanos);
+	}
+
+	public String getRoute() {
+		return route;
+	}
+
+	public long getReads() {
+		return reads.sum();
+	}
+
+	public long getReadBytes() {
+		return readBytes.sum();
+	}
+
+	public LatencyHistogram getReadTime() {
+		return readTime;
+	}
+
+	public long getWrites() {
+		return writes.sum();
+	}
+
+	public long getWrittenBytes() {
+		return writtenBytes.sum();
+	}
+
+	public LatencyHistogram getWriteTime() {
+		return writeTime;
+	}
+
+	@Override
+	public String toString() {
+		return format("%s: reads=%d, avg read=%d B, read p50=%dus, read p99=%dus, " +
+				"writes=%d, avg written=%d B, write p50=%dus, write p99=%dus",
+			route, getReads(), average(getReadBytes(), getReads()), micros(readTime.getValueAtPercentile(50)),
+			micros(readTime.getValueAtPercentile(99)), getWrites(), average(getWrittenBytes(), getWrites()),
+			micros(writeTime.getValueAtPercentile(50)), micros(writeTime.getValueAtPercentile(99)));
+	}
+
+	private static long average(long total, long count) {
+		return count == 0 ? 0 : total / count;
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
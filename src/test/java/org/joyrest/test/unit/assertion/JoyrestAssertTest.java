@@ -2,13 +2,18 @@ package org.joyrest.test.unit.assertion;
 
 import static org.joyrest.routing.entity.ResponseCollectionType.RespList;
 import static org.joyrest.routing.entity.ResponseType.Resp;
+import static org.joyrest.test.unit.assertion.JoyrestAssert.assertAllocatesAtMost;
 import static org.joyrest.test.unit.assertion.JoyrestAssert.assertType;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class JoyrestAssertTest {
 
@@ -59,4 +64,43 @@ public class JoyrestAssertTest {
 		List<String> list = Arrays.asList("First", "Second", "Third");
 		assertType(RespList(String.class), Optional.of(list));
 	}
+
+	@Test
+	public void testAssertAllocatesAtMost() throws Exception {
+		assertAllocatesAtMost(64, () -> {
+		});
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testAssertAllocatesAtMostExceeded() throws Exception {
+		assertAllocatesAtMost(1024, 10, 10, () -> consume(new byte[16 * 1024]));
+	}
+
+	private static void consume(byte[] bytes) {
+		if (bytes.length == 0)
+			throw new IllegalStateException();
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void testAssertCollectionTypeContainerException() throws Exception {
+		assertType(RespList(String.class), new HashSet<>(Arrays.asList("First", "Second")));
+	}
+
+	@Test
+	public void testAssertCollectionTypeStream() throws Exception {
+		assertType(RespList(String.class), Stream.of("First", "Second", "Third"));
+		assertType(RespList(String.class), Arrays.asList("First", "Second").iterator());
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void testAssertCollectionTypeStreamException() throws Exception {
+		assertType(RespList(String.class), Stream.of("First", 2, "Third"));
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void testAssertLargeCollectionTypeException() throws Exception {
+		List<Object> list = new ArrayList<>(Collections.nCopies(500_000, "Element"));
+		list.set(400_000, 1);
+		assertType(RespList(String.class), list);
+	}
 }
\ No newline at end of file
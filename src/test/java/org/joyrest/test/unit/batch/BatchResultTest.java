@@ -0,0 +1,199 @@
+package org.joyrest.test.unit.batch;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.joyrest.model.http.HttpMethod.GET;
+import static org.joyrest.model.http.HttpMethod.POST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.exception.type.RestException;
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.model.http.HttpStatus;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.routing.RoutePart;
+import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.metrics.AllocationMeter;
+import org.joyrest.test.unit.metrics.Phase;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchResultTest extends EasyMockSupport {
+
+	private static class BatchTest extends ControllerUnitTest {
+
+		private BatchResult run(List<MockRequest<?>> requests, ForkJoinPool pool) {
+			return callAll(requests, pool);
+		}
+	}
+
+	private final List<String> executed = new CopyOnWriteArrayList<>();
+
+	private BatchTest test;
+
+	@Before
+	public void setUp() throws Exception {
+		InternalRoute users = route(GET, "users", HttpStatus.OK);
+		InternalRoute create = route(POST, "users", HttpStatus.CREATED);
+		InternalRoute failing = route(GET, "failing", null);
+		InternalRoute empty = route(GET, "empty", null);
+
+		ControllerConfiguration controller = createNiceMock(ControllerConfiguration.class);
+		expect(controller.getRoutes()).andStubReturn(new LinkedHashSet<>(Arrays.asList(users, create, failing, empty)));
+		replayAll();
+
+		test = new BatchTest();
+		test.holder.setController(controller);
+		test.holder.setControllerPath("/api");
+	}
+
+	@Test
+	public void testGroupedDispatch() throws Exception {
+		BatchResult result = test.run(Arrays.asList(
+			request(GET, "/users"), request(POST, "/users"), request(GET, "/users"), request(POST, "/users")), null);
+
+		assertEquals(Arrays.asList("GET /api/users", "GET /api/users", "POST /api/users", "POST /api/users"), executed);
+		assertEquals(4, result.size());
+		for (int i = 0; i < result.size(); i++)
+			assertEquals(i, result.getResults().get(i).getIndex());
+
+		assertEquals(HttpStatus.OK, result.getResults().get(0).getStatus());
+		assertEquals(HttpStatus.CREATED, result.getResults().get(1).getStatus());
+		result.assertNoFailures();
+	}
+
+	@Test
+	public void testFailuresAreCaptured() throws Exception {
+		BatchResult result = test.run(Arrays.asList(
+			request(GET, "/users"), request(GET, "/failing"), request(GET, "/unknown"), request(POST, "/users")), null);
+
+		List<CallResult> failures = result.getFailures();
+		assertEquals(2, failures.size());
+
+		CallResult failed = failures.get(0);
+		assertEquals(1, failed.getIndex());
+		assertTrue(failed.getRoute().isPresent());
+		assertEquals("Execution failed", failed.getFailure().get().getMessage());
+		assertNull(failed.getStatus());
+
+		CallResult unresolved = failures.get(1);
+		assertEquals(2, unresolved.getIndex());
+		assertFalse(unresolved.getRoute().isPresent());
+		assertTrue(unresolved.getFailure().get() instanceof RestException);
+
+		assertFalse(result.getResults().get(3).isFailed());
+	}
+
+	@Test
+	public void testCounts() throws Exception {
+		BatchResult result = test.run(Arrays.asList(
+			request(GET, "/users"), request(GET, "/users"), request(POST, "/users"),
+			request(GET, "/failing"), request(GET, "/empty"), request(GET, "/unknown")), null);
+
+		Map<HttpStatus, Long> byStatus = result.countByStatus();
+		assertEquals(2, byStatus.size());
+		assertEquals(Long.valueOf(2), byStatus.get(HttpStatus.OK));
+		assertEquals(Long.valueOf(1), byStatus.get(HttpStatus.CREATED));
+
+		Map<String, Long> byRoute = result.countByRoute();
+		assertEquals(Long.valueOf(2), byRoute.get("GET /users"));
+		assertEquals(Long.valueOf(1), byRoute.get("POST /users"));
+		assertEquals(Long.valueOf(1), byRoute.get("GET /failing"));
+		assertEquals(Long.valueOf(1), byRoute.get("GET /empty"));
+		assertEquals(Long.valueOf(1), byRoute.get("unresolved"));
+	}
+
+	@Test
+	public void testSameBatchTwice() throws Exception {
+		List<MockRequest<?>> requests = Arrays.asList(request(GET, "/users"), request(POST, "/users"));
+
+		BatchResult first = test.run(requests, null);
+		assertEquals("/users", requests.get(0).getPath());
+
+		BatchResult second = test.run(requests, ForkJoinPool.commonPool());
+		assertEquals("/users", requests.get(0).getPath());
+
+		first.assertNoFailures();
+		second.assertNoFailures();
+		assertEquals(first.countByRoute(), second.countByRoute());
+		assertSame(first.getResults().get(1).getRoute().get(), second.getResults().get(1).getRoute().get());
+		assertEquals(4, executed.size());
+		assertTrue(executed.subList(2, 4).containsAll(Arrays.asList("GET /api/users", "POST /api/users")));
+	}
+
+	@Test
+	public void testBatchIsMeasured() throws Exception {
+		assumeTrue(AllocationMeter.isSupported());
+
+		AllocationMeter.startRecording();
+		long[] bytes;
+		try {
+			test.run(Arrays.asList(request(GET, "/users"), request(POST, "/users")), null).assertNoFailures();
+		} finally {
+			bytes = AllocationMeter.stopRecording();
+		}
+		assertTrue(bytes[Phase.EXECUTION.ordinal()] > 0);
+	}
+
+	@Test
+	public void testPathParamsAreRestored() throws Exception {
+		Map<String, Object> pathParams = Collections.singletonMap("id", "1");
+		MockRequest<?> request = request(GET, "/users");
+		request.setPathParams(pathParams);
+
+		test.run(Arrays.asList(request), null).assertNoFailures();
+		assertSame(pathParams, request.getPathParams());
+	}
+
+	private InternalRoute route(HttpMethod method, String path, HttpStatus status) {
+		InternalRoute route = createNiceMock(InternalRoute.class);
+		List<RoutePart<?>> parts = new ArrayList<>();
+		for (String value : Arrays.asList("api", path)) {
+			RoutePart<?> part = createNiceMock(RoutePart.class);
+			expect(part.getType()).andStubReturn(RoutePart.Type.PATH);
+			expect(part.getValue()).andStubReturn(value);
+			parts.add(part);
+		}
+
+		expect(route.getRouteParts()).andStubReturn(parts);
+		expect(route.getHttpMethod()).andStubReturn(method);
+		expect(route.getPath()).andStubReturn("/" + path);
+		route.execute(anyObject(), anyObject());
+		expectLastCall().andStubAnswer(() -> {
+			MockRequest<?> req = (MockRequest<?>) getCurrentArguments()[0];
+			executed.add(req.getMethod() + " " + req.getPath());
+			if (path.equals("failing"))
+				throw new IllegalStateException("Execution failed");
+
+			((MockResponse<?>) getCurrentArguments()[1]).setStatus(status);
+			return null;
+		});
+		return route;
+	}
+
+	private static MockRequest<?> request(HttpMethod method, String path) {
+		MockRequest<?> request = new MockRequest<>();
+		request.setMethod(method);
+		request.setPath(path);
+		return request;
+	}
+}
@@ -0,0 +1,71 @@
+package org.joyrest.test.unit.body;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.joyrest.test.unit.model.MockRequest;
+import org.junit.Test;
+
+public class ByteBufferBodyTest {
+
+	@Test
+	public void testFreshStreamForEveryCall() throws Exception {
+		MockRequest<?> request = new MockRequest<>();
+		request.setBody(ByteBufferBody.of("{\"name\":\"joyrest\"}"));
+
+		InputStream first = request.getInputStream();
+		assertEquals("{\"name\":\"joyrest\"}", read(first));
+
+		InputStream second = request.getInputStream();
+		assertNotSame(first, second);
+		assertEquals("{\"name\":\"joyrest\"}", read(second));
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+		byte[] content = new byte[1 << 20];
+		for (int i = 0; i < content.length; i++)
+			content[i] = (byte) i;
+
+		Path file = Files.createTempFile("joyrest", ".bin");
+		try {
+			Files.write(file, content);
+			ByteBufferBody body = ByteBufferBody.map(file);
+			assertEquals(content.length, body.size());
+
+			try (InputStream stream = body.open()) {
+				assertEquals(content.length, stream.available());
+				assertEquals(0, stream.read());
+				assertEquals(content.length - 2, stream.skip(content.length - 2));
+				assertEquals(content[content.length - 1] & 0xFF, stream.read());
+				assertEquals(-1, stream.read());
+			}
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			try (InputStream stream = body.open()) {
+				byte[] buffer = new byte[8192];
+				int count;
+				while ((count = stream.read(buffer)) != -1)
+					output.write(buffer, 0, count);
+			}
+			assertArrayEquals(content, output.toByteArray());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static String read(InputStream stream) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int b;
+		while ((b = stream.read()) != -1)
+			output.write(b);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
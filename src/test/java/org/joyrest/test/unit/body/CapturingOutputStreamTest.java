@@ -0,0 +1,88 @@
+package org.joyrest.test.unit.body;
+
+import static org.joyrest.test.unit.assertion.JoyrestAssert.assertBody;
+import static org.joyrest.test.unit.assertion.JoyrestAssert.assertBodyChecksum;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import org.joyrest.test.unit.model.MockResponse;
+import org.junit.Test;
+
+public class CapturingOutputStreamTest {
+
+	@Test
+	public void testCaptureAcrossChunks() throws Exception {
+		byte[] content = content(20_000);
+		MockResponse<?> response = new MockResponse<>();
+		OutputStream stream = response.getOutputStream();
+		stream.write(content, 0, 10);
+		stream.write(content[10]);
+		stream.write(content, 11, content.length - 11);
+
+		CapturingOutputStream capture = response.getCapture();
+		assertEquals(content.length, capture.size());
+		assertArrayEquals(content, capture.toByteArray());
+
+		CRC32 crc = new CRC32();
+		crc.update(content, 0, content.length);
+		assertBodyChecksum(crc.getValue(), response);
+
+		Path golden = Files.createTempFile("joyrest", ".golden");
+		try {
+			Files.write(golden, content);
+			assertBody(golden, response);
+		} finally {
+			Files.deleteIfExists(golden);
+		}
+
+		response.reset();
+		assertEquals(0, response.getCapture().size());
+	}
+
+	@Test
+	public void testMismatch() throws Exception {
+		byte[] content = content(10_000);
+		CapturingOutputStream capture = new CapturingOutputStream();
+		capture.write(content);
+
+		content[9_000]++;
+		assertEquals(9_000, capture.mismatch(new ByteArrayInputStream(content)));
+		assertEquals(100, capture.mismatch(new ByteArrayInputStream(content, 0, 100)));
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testBodyDiffers() throws Exception {
+		MockResponse<?> response = new MockResponse<>();
+		response.getOutputStream().write(content(100));
+
+		assertBody(new ByteArrayInputStream(content(101)), response);
+	}
+
+	@Test
+	public void testDiscardCountsBytes() throws Exception {
+		CapturingOutputStream capture = new CapturingOutputStream().discard(true);
+		capture.write(content(100_000));
+		assertEquals(100_000, capture.size());
+	}
+
+	@Test(expected = IOException.class)
+	public void testCap() throws Exception {
+		CapturingOutputStream capture = new CapturingOutputStream().cap(1_000);
+		capture.write(content(1_000));
+		capture.write(0);
+	}
+
+	private static byte[] content(int length) {
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++)
+			content[i] = (byte) (i * 31);
+		return content;
+	}
+}
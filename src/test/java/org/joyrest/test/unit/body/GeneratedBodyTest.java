@@ -0,0 +1,93 @@
+package org.joyrest.test.unit.body;
+
+import static org.joyrest.test.unit.assertion.JoyrestAssert.assertPeakHeapAtMost;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.joyrest.test.unit.metrics.HeapProbe;
+import org.junit.Test;
+
+public class GeneratedBodyTest {
+
+	private static final RecordGenerator PERSON = (index, random, record) ->
+		record.append("{\"id\":").append(index).append(",\"age\":").append(random.nextInt(100)).append('}');
+
+	@Test
+	public void testJsonArray() throws Exception {
+		assertEquals("[{\"a\":1},{\"a\":1},{\"a\":1}]", read(GeneratedBody.jsonArray("{\"a\":1}").records(3).open()));
+		assertEquals("[]", read(GeneratedBody.jsonArray("{\"a\":1}").records(0).open()));
+	}
+
+	@Test
+	public void testCsv() throws Exception {
+		GeneratedBody body = GeneratedBody.csv("id,name", (index, random, row) -> row.append(index).append(",n"))
+			.records(2);
+		assertEquals("id,name\n0,n\n1,n\n", read(body.open()));
+	}
+
+	@Test
+	public void testSeededRecordsAreRepeatable() throws Exception {
+		GeneratedBody body = GeneratedBody.ndjson(PERSON).seed(42).size(100_000);
+
+		String first = read(body.open());
+		assertEquals(first, read(body.open()));
+		assertTrue(first.length() >= 100_000);
+		assertTrue(first.endsWith("}\n"));
+	}
+
+	@Test
+	public void testHeapSampledOnceAtEnd() throws Exception {
+		HeapProbe probe = HeapProbe.start();
+		GeneratedBody body = GeneratedBody.jsonArray("{\"a\":1}").records(3).probe(probe, Long.MAX_VALUE);
+
+		InputStream stream = body.open();
+		read(stream);
+		for (int i = 0; i < 10; i++)
+			assertEquals(-1, stream.read());
+
+		assertEquals(1, probe.getSamples());
+	}
+
+	@Test
+	public void testStreamingConsumerHasBoundedHeap() throws Exception {
+		GeneratedBody body = GeneratedBody.jsonArray(PERSON).size(64 * 1024 * 1024);
+
+		assertPeakHeapAtMost(8 * 1024 * 1024, 16 * 1024 * 1024, body, () -> {
+			try (InputStream stream = body.open()) {
+				byte[] buffer = new byte[4096];
+				while (stream.read(buffer) != -1) {
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testBufferingConsumerExceedsHeap() throws Exception {
+		GeneratedBody body = GeneratedBody.jsonArray(PERSON).size(32 * 1024 * 1024);
+
+		assertPeakHeapAtMost(8 * 1024 * 1024, 8 * 1024 * 1024, body, () -> {
+			try {
+				read(body.open());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static String read(InputStream stream) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int count;
+		while ((count = stream.read(buffer)) != -1)
+			output.write(buffer, 0, count);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,113 @@
+package org.joyrest.test.unit.body;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.joyrest.test.unit.body.SlowConsumerOutputStream.WriteTiming;
+import org.joyrest.test.unit.model.MockResponse;
+import org.junit.Test;
+
+public class SlowConsumerOutputStreamTest {
+
+	@Test
+	public void testBandwidthBlocksWriter() throws Exception {
+		MockResponse<?> response = new MockResponse<>();
+		SlowConsumerOutputStream slowConsumer = response.slowConsumer()
+			.bandwidth(1024 * 1024)
+			.buffer(64 * 1024);
+
+		WriteTiming timing = slowConsumer.measure(() -> write(response.getOutputStream(), 192 * 1024));
+
+		// 128 kB over the buffer takes 125 ms to be read by the client
+		assertTrue(timing.toString(), timing.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(120));
+		assertTrue(timing.toString(), timing.getBlockedRatio() > 0.5);
+		assertEquals(192 * 1024, response.getCapture().size());
+	}
+
+	@Test
+	public void testStalls() throws Exception {
+		SlowConsumerOutputStream slowConsumer = new SlowConsumerOutputStream(new CapturingOutputStream())
+			.stall(1024, 20, TimeUnit.MILLISECONDS);
+
+		WriteTiming timing = slowConsumer.measure(() -> write(slowConsumer, 3 * 1024));
+		assertTrue(timing.toString(), timing.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(60));
+	}
+
+	@Test
+	public void testStallsInOneWrite() throws Exception {
+		SlowConsumerOutputStream slowConsumer = new SlowConsumerOutputStream(new CapturingOutputStream())
+			.stall(1024, 20, TimeUnit.MILLISECONDS);
+
+		// one write passes four stall points
+		WriteTiming timing = slowConsumer.measure(() -> {
+			try {
+				slowConsumer.write(new byte[4 * 1024]);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		assertTrue(timing.toString(), timing.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(80));
+		assertTrue(timing.toString(), timing.getBlockedNanos() < TimeUnit.MILLISECONDS.toNanos(500));
+		assertEquals(timing.getBlockedNanos(), slowConsumer.getBlockedNanos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroStallInterval() throws Exception {
+		new SlowConsumerOutputStream(new CapturingOutputStream()).stall(0, 20, TimeUnit.MILLISECONDS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeStallInterval() throws Exception {
+		new SlowConsumerOutputStream(new CapturingOutputStream()).stall(-1024, 20, TimeUnit.MILLISECONDS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeStallDuration() throws Exception {
+		new SlowConsumerOutputStream(new CapturingOutputStream()).stall(1024, -1, TimeUnit.MILLISECONDS);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroBandwidth() throws Exception {
+		new SlowConsumerOutputStream(new CapturingOutputStream()).bandwidth(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeBandwidth() throws Exception {
+		new SlowConsumerOutputStream(new CapturingOutputStream()).bandwidth(-1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeBuffer() throws Exception {
+		new SlowConsumerOutputStream(new CapturingOutputStream()).buffer(-1);
+	}
+
+	@Test
+	public void testDisconnect() throws Exception {
+		CapturingOutputStream capture = new CapturingOutputStream();
+		SlowConsumerOutputStream slowConsumer = new SlowConsumerOutputStream(capture).disconnectAfter(1000);
+
+		slowConsumer.write(new byte[1000]);
+		try {
+			slowConsumer.write(0);
+			throw new AssertionError("Client has not disconnected.");
+		} catch (IOException e) {
+			assertEquals(1000, capture.size());
+		}
+	}
+
+	private static void write(OutputStream stream, int length) {
+		try {
+			byte[] chunk = new byte[1024];
+			for (int i = 0; i < length / chunk.length; i++)
+				stream.write(chunk);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
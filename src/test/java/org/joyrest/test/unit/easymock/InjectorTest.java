@@ -0,0 +1,194 @@
+package org.joyrest.test.unit.easymock;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.annotation.MockLatency;
+import org.joyrest.test.unit.annotation.TestedController;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class InjectorTest {
+
+	private static class Subject {
+
+		private List<String> list;
+
+		private Map<String, String> first;
+
+		private Map<String, String> second;
+
+		private String other;
+	}
+
+	private static class SimpleTest extends EasyMockSupport {
+
+		@Mock
+		private List<String> list;
+	}
+
+	private static class QualifiedTest extends EasyMockSupport {
+
+		@Mock(fieldName = "first")
+		private Map<String, String> first;
+
+		@Mock(fieldName = "second")
+		private Map<String, String> second;
+
+		@Mock
+		private List<String> list;
+	}
+
+	private static class AmbiguousTest extends EasyMockSupport {
+
+		@Mock
+		private Map<String, String> first;
+
+		@Mock
+		private Map<String, String> second;
+	}
+
+	private static class LatencyTest extends EasyMockSupport {
+
+		@Mock
+		@MockLatency(fixed = "20ms")
+		private List<String> list;
+	}
+
+	private static class UnsatisfiedTest extends EasyMockSupport {
+
+		@Mock(fieldName = "unknown")
+		private List<String> list;
+	}
+
+	public static class InjectedController extends ControllerConfiguration {
+
+		List<String> list;
+
+		@Override
+		protected void configure() {
+		}
+	}
+
+	@TestedController(InjectedController.class)
+	public static class InjectedFixture extends ControllerUnitTest {
+
+		@Mock
+		List<String> list;
+
+		@Test
+		public void inject() throws Exception {
+			assertNotNull(list);
+			assertSame(list, ((InjectedController) holder.getController()).list);
+		}
+	}
+
+	public static class InjectedFixture_JoyrestInjector implements GeneratedInjector<InjectedFixture> {
+
+		@Override
+		public Object createSubject() {
+			return new InjectedController();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void injectMocks(InjectedFixture test, Object subject) {
+			test.list = test.createMock(List.class);
+			((InjectedController) subject).list = test.list;
+		}
+	}
+
+	@Test
+	public void testInjectByType() throws Exception {
+		SimpleTest test = new SimpleTest();
+		Subject subject = new Subject();
+		Injector.injectMocks(test, subject);
+
+		assertNotNull(test.list);
+		assertSame(test.list, subject.list);
+		assertNull(subject.first);
+		assertNull(subject.other);
+	}
+
+	@Test
+	public void testInjectCreatesNewMocks() throws Exception {
+		SimpleTest test = new SimpleTest();
+		Subject subject = new Subject();
+		Injector.injectMocks(test, subject);
+		List<String> previous = test.list;
+
+		Injector.injectMocks(test, subject);
+		assertNotSame(previous, test.list);
+		assertSame(test.list, subject.list);
+	}
+
+	@Test
+	public void testInjectByName() throws Exception {
+		QualifiedTest test = new QualifiedTest();
+		Subject subject = new Subject();
+		Injector.injectMocks(test, subject);
+
+		assertSame(test.first, subject.first);
+		assertSame(test.second, subject.second);
+		assertSame(test.list, subject.list);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInjectAmbiguous() throws Exception {
+		Injector.injectMocks(new AmbiguousTest(), new Subject());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInjectUnsatisfiedQualifier() throws Exception {
+		Injector.injectMocks(new UnsatisfiedTest(), new Subject());
+	}
+
+	@Test
+	public void testInjectWithLatency() throws Exception {
+		LatencyTest test = new LatencyTest();
+		Subject subject = new Subject();
+		Injector.injectMocks(test, subject);
+		assertNotSame(test.list, subject.list);
+
+		expect(test.list.size()).andReturn(5);
+		test.replayAll();
+
+		long start = System.nanoTime();
+		assertEquals(5, subject.list.size());
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+		test.verifyAll();
+	}
+
+	@Test
+	public void testRuleBehaviorOverridesAnnotation() throws Exception {
+		LatencyTest test = new LatencyTest();
+		Subject subject = new Subject();
+		Injector.injectMocks(test, subject, new MockBehaviors().forField("list", MockBehavior.none()));
+
+		assertSame(test.list, subject.list);
+	}
+
+	@Test
+	public void testGeneratedInjectorWithoutPlan() throws Exception {
+		Result result = JUnitCore.runClasses(InjectedFixture.class);
+
+		assertTrue(String.valueOf(result.getFailures()), result.wasSuccessful());
+		assertTrue(GeneratedInjectors.find(InjectedFixture.class).isPresent());
+		assertFalse(MockInjectionPlan.isCreated(InjectedFixture.class));
+	}
+}
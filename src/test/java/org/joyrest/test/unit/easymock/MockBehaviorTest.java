@@ -0,0 +1,61 @@
+package org.joyrest.test.unit.easymock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.joyrest.test.unit.metrics.LatencyHistogram;
+import org.junit.Test;
+
+public class MockBehaviorTest {
+
+	@Test
+	public void testUniformLatency() throws Exception {
+		Callable<String> wrapped = MockBehavior.uniform(5, 10, TimeUnit.MILLISECONDS)
+			.wrap(Callable.class, () -> "result");
+
+		long start = System.nanoTime();
+		assertEquals("result", wrapped.call());
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(5));
+	}
+
+	@Test
+	public void testHistogramLatency() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+		Callable<String> wrapped = MockBehavior.histogram(histogram).wrap(Callable.class, () -> "result");
+
+		long start = System.nanoTime();
+		wrapped.call();
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(3));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailure() throws Exception {
+		MockBehavior.none().failing(1, IllegalStateException::new).wrap(Callable.class, () -> "result").call();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testObjectMethodFailure() throws Exception {
+		Runnable mock = new Runnable() {
+
+			@Override
+			public void run() {
+			}
+
+			@Override
+			public String toString() {
+				throw new IllegalStateException();
+			}
+		};
+		MockBehavior.none().wrap(Runnable.class, mock).toString();
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testClassCannotBeWrapped() throws Exception {
+		MockBehavior.none().wrap(StringBuilder.class, new StringBuilder());
+	}
+}
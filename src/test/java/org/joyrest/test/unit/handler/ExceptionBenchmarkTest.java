@@ -0,0 +1,93 @@
+package org.joyrest.test.unit.handler;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.joyrest.exception.handler.InternalExceptionHandler;
+import org.junit.Test;
+
+public class ExceptionBenchmarkTest {
+
+	private static class StacklessException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public StacklessException(String message) {
+			super(message);
+		}
+
+		protected StacklessException(String message, Throwable cause, boolean suppression, boolean stackTrace) {
+			super(message, cause, suppression, stackTrace);
+		}
+	}
+
+	@Test
+	public void testScenario() throws Exception {
+		Supplier<StacklessException> stackless = ExceptionScenario.of(StacklessException.class)
+			.stackTrace(false)
+			.chained(3)
+			.supplier();
+
+		StacklessException exception = stackless.get();
+		assertEquals(0, exception.getStackTrace().length);
+		assertEquals("Cause 3", exception.getCause().getCause().getCause().getMessage());
+		assertNotSame(exception, stackless.get());
+
+		Supplier<IllegalStateException> preallocated = ExceptionScenario.of(IllegalStateException.class)
+			.preallocated()
+			.supplier();
+		assertSame(preallocated.get(), preallocated.get());
+		assertTrue(preallocated.get().getStackTrace().length > 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStacklessNotSupported() throws Exception {
+		ExceptionScenario.of(IllegalStateException.class).stackTrace(false);
+	}
+
+	@Test
+	public void testChainedFactoryWithCause() throws Exception {
+		ExceptionScenario<IllegalStateException> withCause = ExceptionScenario.of(IllegalStateException.class,
+			() -> new IllegalStateException("Failed", new RuntimeException("Original")));
+		assertCauseAlreadySet(withCause.chained(1));
+
+		ExceptionScenario<IllegalStateException> withNullCause = ExceptionScenario.of(IllegalStateException.class,
+			() -> new IllegalStateException("Failed", null));
+		assertCauseAlreadySet(withNullCause.chained(1));
+	}
+
+	private static void assertCauseAlreadySet(ExceptionScenario<?> scenario) {
+		try {
+			scenario.supplier();
+			fail("Expected the chained scenario to be rejected.");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(
+				"Exception 'java.lang.IllegalStateException' created by the factory already has a cause"));
+		}
+	}
+
+	@Test
+	public void testBenchmark() throws Exception {
+		InternalExceptionHandler handler = createMock(InternalExceptionHandler.class);
+		handler.execute(anyObject(), anyObject(), anyObject());
+		expectLastCall().anyTimes();
+		replay(handler);
+
+		ExceptionReport report = new ExceptionBenchmark(2, 100, 1_000, Executors.defaultThreadFactory())
+			.run(ExceptionScenario.of(IllegalStateException.class), handler);
+
+		assertEquals(2, report.getThreads());
+		assertEquals(2_000, report.getHandled());
+		assertTrue(report.toString(), report.getThroughput() > 0);
+	}
+}
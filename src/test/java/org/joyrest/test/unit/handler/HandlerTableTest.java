@@ -0,0 +1,78 @@
+package org.joyrest.test.unit.handler;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.exception.configuration.ExceptionConfiguration;
+import org.joyrest.exception.handler.InternalExceptionHandler;
+import org.junit.Test;
+
+public class HandlerTableTest extends EasyMockSupport {
+
+	private static class ParentException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static class ChildException extends ParentException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	private static class GrandChildException extends ChildException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void testResolveSuperclassHandler() throws Exception {
+		InternalExceptionHandler handler = createMock(InternalExceptionHandler.class);
+		expect(handler.getExceptionClass()).andReturn((Class) ParentException.class);
+
+		ExceptionConfiguration configuration = createMock(ExceptionConfiguration.class);
+		configuration.initialize();
+		expect(configuration.getExceptionHandlers()).andReturn(Collections.singleton(handler));
+		replayAll();
+
+		HandlerTable table = new HandlerTable();
+		table.initialize(configuration);
+		table.initialize(configuration);
+
+		assertSame(handler, table.resolve(ParentException.class));
+		assertSame(handler, table.resolve(GrandChildException.class));
+		assertSame(handler, table.resolve(GrandChildException.class));
+		assertNull(table.resolve(IllegalStateException.class));
+		assertNull(table.resolve(IllegalStateException.class));
+		verifyAll();
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void testResolveClosestHandler() throws Exception {
+		InternalExceptionHandler parentHandler = createMock(InternalExceptionHandler.class);
+		expect(parentHandler.getExceptionClass()).andReturn((Class) ParentException.class);
+
+		InternalExceptionHandler childHandler = createMock(InternalExceptionHandler.class);
+		expect(childHandler.getExceptionClass()).andReturn((Class) ChildException.class);
+
+		ExceptionConfiguration configuration = createMock(ExceptionConfiguration.class);
+		configuration.initialize();
+		expect(configuration.getExceptionHandlers()).andReturn(new HashSet<>(asList(parentHandler, childHandler)));
+		replayAll();
+
+		HandlerTable table = new HandlerTable();
+		table.initialize(configuration);
+
+		assertSame(parentHandler, table.resolve(ParentException.class));
+		assertSame(childHandler, table.resolve(ChildException.class));
+		assertSame(childHandler, table.resolve(GrandChildException.class));
+		verifyAll();
+	}
+}
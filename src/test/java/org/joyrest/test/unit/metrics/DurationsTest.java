@@ -0,0 +1,21 @@
+package org.joyrest.test.unit.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DurationsTest {
+
+	@Test
+	public void testParse() throws Exception {
+		assertEquals(500, Durations.parse("500ns"));
+		assertEquals(1_500, Durations.parse("1.5us"));
+		assertEquals(2_000_000, Durations.parse("2ms"));
+		assertEquals(1_000_000_000, Durations.parse("1 s"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalid() throws Exception {
+		Durations.parse("2 minutes");
+	}
+}
@@ -0,0 +1,40 @@
+package org.joyrest.test.unit.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testIndex() throws Exception {
+		for (long value = 0; value < 1_000_000; value++) {
+			long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value));
+			assertTrue(value <= highest);
+			assertTrue(highest - value <= Math.max(1, value / 64));
+		}
+
+		assertEquals(LatencyHistogram.index(Long.MAX_VALUE), LatencyHistogram.index(Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	public void testPercentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1000; value++)
+			histogram.record(value);
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000, histogram.getMax());
+		assertEquals(500, histogram.getValueAtPercentile(50), 500 / 64);
+		assertEquals(990, histogram.getValueAtPercentile(99), 990 / 64);
+		assertEquals(1000, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals(0, histogram.getMax());
+	}
+}
@@ -0,0 +1,67 @@
+package org.joyrest.test.unit.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LeakDetectorTest {
+
+	private static final List<byte[]> leaked = new ArrayList<>();
+
+	@Test
+	public void testParseHistogram() throws Exception {
+		ClassHistogram histogram = ClassHistogram.parse(
+			" num     #instances         #bytes  class name (module)\n" +
+			"-------------------------------------------------------\n" +
+			"   1:         12345         678900  [B (java.base@17)\n" +
+			"   2:            10            240  java.lang.String (java.base@17)\n" +
+			"Total         12355         679140\n");
+
+		assertEquals(12345, histogram.getInstances("[B"));
+		assertEquals(240, histogram.getBytes("java.lang.String"));
+		assertEquals(0, histogram.getInstances("java.lang.Object"));
+	}
+
+	@Test
+	public void testLeakDetected() throws Exception {
+		assumeExplicitGc();
+
+		LeakReport report;
+		try {
+			report = new LeakDetector(4, 100).run(() -> leaked.add(new byte[10_000]));
+		} finally {
+			leaked.clear();
+		}
+
+		assertTrue(report.toString(), report.getGrowth() > 2_000_000);
+		if (ClassHistogram.take().isPresent())
+			assertEquals(report.toString(), "[B", report.getGrowingClasses().get(0).getClassName());
+
+		try {
+			report.assertGrowthAtMost(1_000_000);
+			fail("Leak has not been detected.");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().startsWith("Retained heap grows"));
+		}
+	}
+
+	@Test
+	public void testNoLeak() throws Exception {
+		assumeExplicitGc();
+
+		new LeakDetector(3, 100).run(() -> new ArrayList<>(1_000).add(new byte[10_000]))
+			.assertGrowthAtMost(1_000_000);
+	}
+
+	// retained heap is sampled after System.gc(), which does nothing with this flag
+	private static void assumeExplicitGc() {
+		assumeFalse(ManagementFactory.getRuntimeMXBean().getInputArguments().contains("-XX:+DisableExplicitGC"));
+	}
+}
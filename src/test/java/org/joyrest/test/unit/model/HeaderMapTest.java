@@ -0,0 +1,95 @@
+package org.joyrest.test.unit.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.joyrest.model.http.HeaderName;
+import org.junit.Test;
+
+public class HeaderMapTest {
+
+	@Test
+	public void testWellKnownHeader() throws Exception {
+		HeaderMap headers = new HeaderMap();
+		assertNull(headers.put(HeaderName.ACCEPT, "application/json"));
+		assertEquals("application/json", headers.put(HeaderName.ACCEPT, "text/plain"));
+
+		assertEquals(1, headers.size());
+		assertEquals("text/plain", headers.get(HeaderName.ACCEPT));
+		assertEquals("text/plain", headers.get(HeaderName.of("Accept")));
+		assertTrue(headers.containsKey(HeaderName.of("Accept")));
+	}
+
+	@Test
+	public void testNullValue() throws Exception {
+		HeaderMap headers = new HeaderMap();
+		headers.put(HeaderName.of("X-Custom"), null);
+		headers.put(HeaderName.CONTENT_TYPE, null);
+
+		assertEquals(2, headers.size());
+		assertTrue(headers.containsKey(HeaderName.of("X-Custom")));
+		assertTrue(headers.containsKey(HeaderName.CONTENT_TYPE));
+		assertNull(headers.get(HeaderName.CONTENT_TYPE));
+	}
+
+	@Test
+	public void testIteratorRemove() throws Exception {
+		HeaderMap headers = new HeaderMap();
+		headers.put(HeaderName.ACCEPT, "a");
+		headers.put(HeaderName.of("X-First"), "b");
+		headers.put(HeaderName.of("X-Second"), "c");
+
+		Iterator<Map.Entry<HeaderName, String>> iterator = headers.entrySet().iterator();
+		while (iterator.hasNext())
+			if (!iterator.next().getValue().equals("c"))
+				iterator.remove();
+
+		assertEquals(1, headers.size());
+		assertEquals("c", headers.get(HeaderName.of("X-Second")));
+		assertFalse(headers.containsKey(HeaderName.ACCEPT));
+	}
+
+	@Test
+	public void testSameAsHashMap() throws Exception {
+		Random random = new Random(42);
+		HeaderName[] names = new HeaderName[40];
+		names[0] = HeaderName.ACCEPT;
+		names[1] = HeaderName.CONTENT_TYPE;
+		for (int i = 2; i < names.length; i++)
+			names[i] = HeaderName.of("X-Header-" + i);
+
+		HeaderMap headers = new HeaderMap();
+		Map<HeaderName, String> expected = new HashMap<>();
+		for (int i = 0; i < 100_000; i++) {
+			HeaderName name = names[random.nextInt(names.length)];
+			switch (random.nextInt(4)) {
+				case 0:
+				case 1:
+					String value = "value-" + random.nextInt(10);
+					assertEquals(expected.put(name, value), headers.put(name, value));
+					break;
+				case 2:
+					assertEquals(expected.remove(name), headers.remove(name));
+					break;
+				default:
+					if (random.nextInt(1000) == 0) {
+						expected.clear();
+						headers.clear();
+					}
+			}
+
+			assertEquals(expected.size(), headers.size());
+		}
+
+		assertEquals(expected, headers);
+		assertEquals(headers, expected);
+		assertEquals(expected.hashCode(), headers.hashCode());
+	}
+}
@@ -0,0 +1,48 @@
+package org.joyrest.test.unit.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.joyrest.model.http.HeaderName;
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.model.http.HttpStatus;
+import org.junit.Test;
+
+public class MockExchangeTest {
+
+	@Test
+	public void testExchangeIsReused() throws Exception {
+		MockExchange first = MockExchange.acquire();
+		first.close();
+
+		MockExchange second = MockExchange.acquire();
+		MockExchange third = MockExchange.acquire();
+		assertSame(first, second);
+		assertNotSame(second, third);
+
+		second.close();
+		third.close();
+	}
+
+	@Test
+	public void testExchangeIsReset() throws Exception {
+		MockExchange exchange = MockExchange.acquire();
+		exchange.getRequest().setMethod(HttpMethod.GET);
+		exchange.getRequest().setPath("/feeds");
+		exchange.getRequest().getHeaders().put(HeaderName.ACCEPT, "application/json");
+		exchange.getResponse().status(HttpStatus.OK);
+		exchange.getResponse().header(HeaderName.CONTENT_TYPE, "application/json");
+		exchange.getResponse().entity("Entity");
+		exchange.close();
+
+		assertNull(exchange.getRequest().getMethod());
+		assertNull(exchange.getRequest().getPath());
+		assertTrue(exchange.getRequest().getHeaders().isEmpty());
+		assertNull(exchange.getResponse().getStatus());
+		assertTrue(exchange.getResponse().getHeaders().isEmpty());
+		assertFalse(exchange.getResponse().getEntity().isPresent());
+	}
+}
@@ -0,0 +1,92 @@
+package org.joyrest.test.unit.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.joyrest.model.http.HttpMethod;
+import org.junit.Test;
+
+public class QueryParamsTest {
+
+	@Test
+	public void testFromUri() throws Exception {
+		MockRequest<?> request = MockRequest.fromUri(HttpMethod.GET,
+			"http://localhost:8080/users/a%20b?name=Petr+B&age=&flag&name=%C5%A0#top");
+
+		assertEquals(HttpMethod.GET, request.getMethod());
+		assertEquals("/users/a b", request.getPath());
+		assertArrayEquals(new String[] {"Petr B", "\u0160"}, request.getQueryParams("name").get());
+		assertArrayEquals(new String[] {""}, request.getQueryParams("age").get());
+		assertArrayEquals(new String[] {""}, request.getQueryParams("flag").get());
+		assertFalse(request.getQueryParams("top").isPresent());
+	}
+
+	@Test
+	public void testUriWithoutQuery() throws Exception {
+		MockRequest<?> request = MockRequest.fromUri("/users");
+
+		assertEquals("/users", request.getPath());
+		assertTrue(request.getQueryParams().isEmpty());
+	}
+
+	@Test
+	public void testMaterialize() throws Exception {
+		Map<String, String[]> params = new QueryParams("a=1&b=2&a=3&&c%3D=4");
+		assertArrayEquals(new String[] {"1", "3"}, params.get("a"));
+
+		params.put("d", new String[] {"5"});
+		assertEquals(4, params.size());
+		assertArrayEquals(new String[] {"1", "3"}, params.get("a"));
+		assertArrayEquals(new String[] {"4"}, params.get("c="));
+		assertArrayEquals(new String[] {"5"}, params.get("d"));
+	}
+
+	@Test
+	public void testMalformedEscape() throws Exception {
+		Map<String, String[]> params = new QueryParams("a=100%&b%zz=2&c=%C5%A0");
+		assertArrayEquals(new String[] {"100%"}, params.get("a"));
+		assertArrayEquals(new String[] {"2"}, params.get("b%zz"));
+		assertArrayEquals(new String[] {"\u0160"}, params.get("c"));
+		assertEquals(3, params.size());
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		QueryParams params = new QueryParams("a=1");
+		params.put("b", new String[] {"2"});
+
+		params.reset("c=3&c=4");
+		assertFalse(params.containsKey("a"));
+		assertFalse(params.containsKey("b"));
+		assertArrayEquals(new String[] {"3", "4"}, params.get("c"));
+		assertEquals(1, params.size());
+
+		params.reset(null);
+		assertTrue(params.isEmpty());
+	}
+
+	@Test
+	public void testRequestReusesQueryParams() throws Exception {
+		MockRequest<?> request = new MockRequest<>();
+		Map<String, String[]> own = request.getQueryParams();
+		own.put("a", new String[] {"1"});
+
+		request.setUri("/users?b=2");
+		assertSame(own, request.getQueryParams());
+		assertFalse(request.getQueryParams("a").isPresent());
+		assertArrayEquals(new String[] {"2"}, request.getQueryParams("b").get());
+
+		request.setUri("/users");
+		assertFalse(request.getQueryParams("b").isPresent());
+
+		request.getQueryParams().put("c", new String[] {"3"});
+		request.reset();
+		assertSame(own, request.getQueryParams());
+		assertTrue(request.getQueryParams().isEmpty());
+	}
+}
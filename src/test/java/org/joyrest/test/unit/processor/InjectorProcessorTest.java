@@ -0,0 +1,184 @@
+package org.joyrest.test.unit.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.test.unit.easymock.GeneratedInjector;
+import org.joyrest.test.unit.easymock.GeneratedInjectors;
+import org.joyrest.test.unit.easymock.Injector;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InjectorProcessorTest {
+
+	private static final String CONTROLLER =
+		"package fixture;\n" +
+		"public class Controller extends org.joyrest.routing.ControllerConfiguration {\n" +
+		"	java.util.List<String> list;\n" +
+		"	java.util.Map<String, String> first;\n" +
+		"	java.util.Map<String, String> second;\n" +
+		"	final java.util.List<String> constant = null;\n" +
+		"	protected void configure() {}\n" +
+		"}\n";
+
+	private static final String TEST =
+		"package fixture;\n" +
+		"import org.easymock.Mock;\n" +
+		"@org.joyrest.test.unit.annotation.TestedController(Controller.class)\n" +
+		"public class ControllerTest extends org.easymock.EasyMockSupport {\n" +
+		"	@Mock(fieldName = \"first\") java.util.Map<String, String> first;\n" +
+		"	@Mock(fieldName = \"second\") java.util.Map<String, String> second;\n" +
+		"	@Mock %s java.util.List<String> list;\n" +
+		"}\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+	@Test
+	public void testGeneratedSource() throws Exception {
+		File output = compile(CONTROLLER, String.format(TEST, ""));
+
+		File generated = new File(output, "fixture/ControllerTest" + GeneratedInjector.SUFFIX + ".java");
+		assertTrue(generated.isFile());
+
+		String source = new String(Files.readAllBytes(generated.toPath()), StandardCharsets.UTF_8);
+		assertTrue(source.contains("implements org.joyrest.test.unit.easymock.GeneratedInjector<fixture.ControllerTest>"));
+		assertTrue(source.contains("return new fixture.Controller();"));
+		assertTrue(source.contains("target.first = test.first;"));
+		assertTrue(source.contains("target.second = test.second;"));
+		assertTrue(source.contains("target.list = test.list;"));
+		assertFalse(source.contains("target.constant"));
+		assertTrue(notes().isEmpty());
+	}
+
+	@Test
+	public void testPrivateMockFallsBackToReflection() throws Exception {
+		File output = compile(CONTROLLER, String.format(TEST, "private"));
+
+		assertFalse(new File(output, "fixture/ControllerTest" + GeneratedInjector.SUFFIX + ".java").exists());
+		assertEquals(1, notes().size());
+		assertTrue(notes().get(0).startsWith("Injector is not generated, reflection will be used: field 'list'"));
+	}
+
+	@Test
+	public void testPrivateSubjectFieldFallsBackToReflection() throws Exception {
+		File output = compile(CONTROLLER.replace("\tjava.util.List<String> list;", "\tprivate java.util.List<String> list;"),
+			String.format(TEST, ""));
+
+		assertFalse(new File(output, "fixture/ControllerTest" + GeneratedInjector.SUFFIX + ".java").exists());
+		assertEquals(1, notes().size());
+		assertTrue(notes().get(0).contains("field 'list' of class 'fixture.Controller' is not accessible"));
+	}
+
+	@Test
+	public void testMockLatencyFallsBackToReflection() throws Exception {
+		File output = compile(CONTROLLER, String.format(TEST, "@org.joyrest.test.unit.annotation.MockLatency(fixed = \"1ms\")"));
+
+		assertFalse(new File(output, "fixture/ControllerTest" + GeneratedInjector.SUFFIX + ".java").exists());
+		assertEquals(1, notes().size());
+		assertTrue(notes().get(0).contains("mock 'list' has a latency behavior"));
+	}
+
+	@Test
+	public void testInjectionParity() throws Exception {
+		File output = compile(CONTROLLER, String.format(TEST, ""));
+
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toURI().toURL() }, getClass().getClassLoader())) {
+			Class<?> testClass = loader.loadClass("fixture.ControllerTest");
+			Class<?> subjectClass = loader.loadClass("fixture.Controller");
+
+			Optional<GeneratedInjector<EasyMockSupport>> injector = GeneratedInjectors.find(testClass);
+			assertTrue(injector.isPresent());
+
+			EasyMockSupport generatedTest = (EasyMockSupport) testClass.newInstance();
+			Object generatedSubject = injector.get().createSubject();
+			assertSame(subjectClass, generatedSubject.getClass());
+			injector.get().injectMocks(generatedTest, generatedSubject);
+
+			EasyMockSupport reflectiveTest = (EasyMockSupport) testClass.newInstance();
+			Object reflectiveSubject = subjectClass.newInstance();
+			Injector.injectMocks(reflectiveTest, reflectiveSubject);
+
+			for (String name : Arrays.asList("list", "first", "second")) {
+				assertNotNull(get(generatedTest, name));
+				assertSame(get(generatedTest, name), get(generatedSubject, name));
+				assertSame(get(reflectiveTest, name), get(reflectiveSubject, name));
+			}
+			assertNull(get(generatedSubject, "constant"));
+			assertNull(get(reflectiveSubject, "constant"));
+		}
+	}
+
+	private File compile(String controller, String test) throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeNotNull(compiler);
+
+		File output = folder.newFolder();
+		List<String> options = Arrays.asList(
+			"-classpath", System.getProperty("java.class.path"),
+			"-d", output.getPath(), "-s", output.getPath());
+
+		JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null,
+			Arrays.asList(new Source("fixture/Controller", controller), new Source("fixture/ControllerTest", test)));
+		task.setProcessors(Arrays.asList(new InjectorProcessor()));
+		assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+		return output;
+	}
+
+	private List<String> notes() {
+		List<String> notes = new ArrayList<>();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+			if (diagnostic.getKind() == Diagnostic.Kind.NOTE && diagnostic.getSource() != null)
+				notes.add(diagnostic.getMessage(null));
+		return notes;
+	}
+
+	private static Object get(Object instance, String name) throws Exception {
+		Field field = instance.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(instance);
+	}
+
+	private static class Source extends SimpleJavaFileObject {
+
+		private final String content;
+
+		private Source(String name, String content) {
+			super(URI.create("string:///" + name + Kind.SOURCE.extension), Kind.SOURCE);
+			this.content = content;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return content;
+		}
+	}
+}
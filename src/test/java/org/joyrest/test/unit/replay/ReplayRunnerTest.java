@@ -0,0 +1,161 @@
+package org.joyrest.test.unit.replay;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.joyrest.model.http.HeaderName;
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.model.http.HttpStatus;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.test.unit.model.MockRequest;
+import org.junit.Test;
+
+public class ReplayRunnerTest {
+
+	@Test
+	public void testParseNdjson() throws Exception {
+		MockRequest<?> request = CaptureFormat.NDJSON.parse("{\"method\": \"post\", \"path\": \"/users\", " +
+			"\"query\": \"notify=true\", \"headers\": {\"Accept\": \"application/json\"}, \"body\": \"{\\\"name\\\": \\\"Petr\\\"}\"}");
+
+		assertEquals(HttpMethod.POST, request.getMethod());
+		assertEquals("/users", request.getPath());
+		assertArrayEquals(new String[] {"true"}, request.getQueryParams("notify").get());
+		assertEquals("application/json", request.getHeader(HeaderName.of("Accept")).get());
+		assertEquals("{\"name\": \"Petr\"}", read(request.getInputStream()));
+	}
+
+	@Test
+	public void testParseNdjsonObjectBody() throws Exception {
+		MockRequest<?> request = CaptureFormat.NDJSON.parse("{\"method\": \"POST\", \"path\": \"/users\", " +
+			"\"headers\": {\"Content-Length\": 52}, " +
+			"\"body\": {\"name\": \"Petr \\\"B\\\"\", \"age\": 30, \"tags\": [\"a\", true, null], \"id\": \"7\"}}");
+
+		assertEquals("52", request.getHeader(HeaderName.of("Content-Length")).get());
+		assertEquals("{\"name\":\"Petr \\\"B\\\"\",\"age\":30,\"tags\":[\"a\",true,null],\"id\":\"7\"}",
+			read(request.getInputStream()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseNdjsonObjectHeader() throws Exception {
+		CaptureFormat.NDJSON.parse("{\"method\": \"GET\", \"path\": \"/users\", \"headers\": {\"Accept\": {\"a\": 1}}}");
+	}
+
+	@Test(timeout = 10_000)
+	public void testReplayStopsWorkersOnReadFailure() throws Exception {
+		List<Thread> workers = new CopyOnWriteArrayList<>();
+		ThreadFactory threadFactory = runnable -> {
+			Thread worker = new Thread(runnable);
+			workers.add(worker);
+			return worker;
+		};
+
+		BufferedReader capture = new BufferedReader(new StringReader(
+			"{\"method\": \"GET\", \"path\": \"/users\"}\n{\"method\": \"GET\", \"path\": \"/users\"}\n")) {
+			private int lines = 0;
+
+			@Override
+			public String readLine() throws IOException {
+				if (++lines > 2)
+					throw new IOException("Capture is not readable.");
+				return super.readLine();
+			}
+		};
+
+		try {
+			new ReplayRunner(1, threadFactory).run(capture, CaptureFormat.NDJSON, (request, response) -> {
+				try {
+					Thread.sleep(60_000);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return null;
+			});
+			fail("Expected failure of the capture.");
+		} catch (IOException e) {
+			assertEquals("Capture is not readable.", e.getMessage());
+		}
+
+		assertEquals(1, workers.size());
+		assertFalse(workers.get(0).isAlive());
+	}
+
+	@Test
+	public void testParseAccessLog() throws Exception {
+		MockRequest<?> request = CaptureFormat.ACCESS_LOG.parse(
+			"127.0.0.1 - - [10/Oct/2015:13:55:36 +0200] \"GET /users/5?fields=name HTTP/1.1\" 200 2326");
+
+		assertEquals(HttpMethod.GET, request.getMethod());
+		assertEquals("/users/5", request.getPath());
+		assertArrayEquals(new String[] {"name"}, request.getQueryParams("fields").get());
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		InternalRoute users = route(HttpMethod.GET, "/users");
+		InternalRoute user = route(HttpMethod.GET, "/users/{id}");
+
+		StringBuilder capture = new StringBuilder("# captured traffic\n");
+		for (int i = 0; i < 1000; i++)
+			capture.append("{\"method\": \"GET\", \"path\": \"/users").append(i % 4 == 0 ? "" : "/" + i).append("\"}\n");
+		capture.append("not a json\n");
+		capture.append("{\"method\": \"GET\", \"path\": \"/unknown\"}\n");
+
+		ReplayReport report = new ReplayRunner(4, Executors.defaultThreadFactory())
+			.run(new BufferedReader(new StringReader(capture.toString())), CaptureFormat.NDJSON, (request, response) -> {
+				if (request.getPath().equals("/unknown"))
+					throw new IllegalStateException("There is no route suitable for path [/unknown]");
+
+				response.status(HttpStatus.OK);
+				return request.getPath().equals("/users") ? users : user;
+			});
+
+		assertEquals(1002, report.getRequests());
+		assertEquals(2, report.getFailureCount());
+		assertEquals(Long.valueOf(1000), report.countByStatus().get(HttpStatus.OK));
+		assertEquals(Long.valueOf(250), report.countByRoute().get("GET /users"));
+		assertEquals(Long.valueOf(750), report.countByRoute().get("GET /users/{id}"));
+		assertEquals(750, report.getLatencies().get("GET /users/{id}").getCount());
+		assertTrue(report.getFailures().get(0).startsWith("line 1002"));
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testAssertNoFailures() throws Exception {
+		new ReplayRunner(1, Executors.defaultThreadFactory())
+			.run(new BufferedReader(new StringReader("{\"path\": \"/users\"}")), CaptureFormat.NDJSON,
+				(request, response) -> null)
+			.assertNoFailures();
+	}
+
+	private static InternalRoute route(HttpMethod method, String path) {
+		InternalRoute route = createMock(InternalRoute.class);
+		expect(route.getHttpMethod()).andReturn(method).anyTimes();
+		expect(route.getPath()).andReturn(path).anyTimes();
+		replay(route);
+		return route;
+	}
+
+	private static String read(InputStream stream) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int b;
+		while ((b = stream.read()) != -1)
+			output.write(b);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
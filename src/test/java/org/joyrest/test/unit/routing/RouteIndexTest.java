@@ -0,0 +1,170 @@
+package org.joyrest.test.unit.routing;
+
+import static org.easymock.EasyMock.expect;
+import static org.joyrest.model.http.HttpMethod.GET;
+import static org.joyrest.model.http.HttpMethod.POST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.exception.type.RestException;
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.routing.RoutePart;
+import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.model.MockRequest;
+import org.junit.Test;
+
+public class RouteIndexTest extends EasyMockSupport {
+
+	@Test
+	public void testLiteralBeforeParam() throws Exception {
+		InternalRoute literal = route(GET, "users", "me");
+		InternalRoute param = route(GET, "users", "{id}");
+		replayAll();
+
+		RouteIndex index = new RouteIndex(Arrays.asList(literal, param));
+		assertSame(literal, index.resolve(request(GET, "/users/me")));
+		assertSame(param, index.resolve(request(GET, "/users/42")));
+	}
+
+	@Test
+	public void testLowestPositionWins() throws Exception {
+		InternalRoute param = route(GET, "users", "{id}");
+		InternalRoute literal = route(GET, "users", "me");
+		InternalRoute duplicate = route(GET, "users", "{name}");
+		replayAll();
+
+		RouteIndex index = new RouteIndex(Arrays.asList(param, literal, duplicate));
+		assertSame(param, index.resolve(request(GET, "/users/me")));
+		assertSame(param, index.resolve(request(GET, "/users/42")));
+	}
+
+	@Test
+	public void testMethodDispatch() throws Exception {
+		InternalRoute get = route(GET, "users");
+		InternalRoute post = route(POST, "users");
+		replayAll();
+
+		RouteIndex index = new RouteIndex(Arrays.asList(get, post));
+		assertSame(get, index.resolve(request(GET, "/users")));
+		assertSame(post, index.resolve(request(POST, "/users")));
+	}
+
+	@Test
+	public void testPathNotFound() throws Exception {
+		InternalRoute route = route(GET, "users", "{id}");
+		replayAll();
+
+		RouteIndex index = new RouteIndex(Arrays.asList(route));
+		assertNotFound("There is no route suitable for path [/users]", index, request(GET, "/users"));
+		assertNotFound("There is no route suitable for path [/orders/1]", index, request(GET, "/orders/1"));
+	}
+
+	@Test
+	public void testMethodNotFound() throws Exception {
+		InternalRoute route = route(GET, "users", "{id}");
+		replayAll();
+
+		RouteIndex index = new RouteIndex(Arrays.asList(route));
+		assertNotFound("There is no route suitable for path [/users/1], method [POST]",
+			index, request(POST, "/users/1"));
+	}
+
+	@Test
+	public void testVerificationAgreesWithLinearScan() throws Exception {
+		InternalRoute literal = route(GET, "users", "me");
+		InternalRoute param = route(GET, "users", "{id}");
+		ControllerUnitTest test = controllerTest(literal, param);
+		test.setRouteVerification(true);
+
+		assertSame(literal, test.resolveRoute(routes(test), request(GET, "/users/me")));
+		assertSame(param, test.resolveRoute(routes(test), request(GET, "/users/42")));
+		try {
+			test.resolveRoute(routes(test), request(POST, "/users/42"));
+			fail("Expected not found exception.");
+		} catch (RestException e) {
+			assertEquals("There is no route suitable for path [/users/42], method [POST]", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testVerificationDetectsDifference() throws Exception {
+		InternalRoute route = createNiceMock(InternalRoute.class);
+		expect(route.getRouteParts()).andStubReturn(parts("users"));
+		// indexed under GET, scanned as POST
+		expect(route.getHttpMethod()).andReturn(GET).andStubReturn(POST);
+		ControllerUnitTest test = controllerTest(route);
+		test.setRouteVerification(true);
+
+		try {
+			test.resolveRoute(routes(test), request(POST, "/users"));
+			fail("Expected the verification to fail.");
+		} catch (RestException e) {
+			fail("Expected the verification to fail instead of: " + e.getMessage());
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().startsWith("Indexed route resolution differs from the linear scan"));
+		}
+	}
+
+	private ControllerUnitTest controllerTest(InternalRoute... routes) {
+		ControllerConfiguration controller = createNiceMock(ControllerConfiguration.class);
+		expect(controller.getRoutes()).andStubReturn(new LinkedHashSet<>(Arrays.asList(routes)));
+		replayAll();
+
+		ControllerUnitTest test = new ControllerUnitTest() {
+		};
+		test.holder.setController(controller);
+		test.initialize();
+		return test;
+	}
+
+	private static Set<InternalRoute> routes(ControllerUnitTest test) {
+		return test.holder.getRouteTable().getRoutes(test.holder.getController(), test.holder.getControllerPath());
+	}
+
+	private InternalRoute route(HttpMethod method, String... path) {
+		InternalRoute route = createNiceMock(InternalRoute.class);
+		expect(route.getRouteParts()).andStubReturn(parts(path));
+		expect(route.getHttpMethod()).andStubReturn(method);
+		expect(route.getPath()).andStubReturn("/" + String.join("/", path));
+		return route;
+	}
+
+	private List<RoutePart<?>> parts(String... path) {
+		List<RoutePart<?>> parts = new ArrayList<>();
+		for (String value : path) {
+			RoutePart<?> part = createNiceMock(RoutePart.class);
+			boolean param = value.startsWith("{");
+			expect(part.getType()).andStubReturn(param ? RoutePart.Type.PARAM : RoutePart.Type.PATH);
+			expect(part.getValue()).andStubReturn(param ? value.substring(1, value.length() - 1) : value);
+			parts.add(part);
+		}
+		return parts;
+	}
+
+	private static MockRequest<?> request(HttpMethod method, String path) {
+		MockRequest<?> request = new MockRequest<>();
+		request.setMethod(method);
+		request.setPath(path);
+		return request;
+	}
+
+	private static void assertNotFound(String message, RouteIndex index, MockRequest<?> request) {
+		try {
+			index.resolve(request);
+			fail("Expected not found exception.");
+		} catch (RestException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package org.joyrest.test.unit.routing;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.routing.InternalRoute;
+import org.junit.Test;
+
+public class RouteTableTest extends EasyMockSupport {
+
+	@Test
+	public void testRoutesAreInitializedOnce() throws Exception {
+		Set<InternalRoute> routes = Collections.emptySet();
+		ControllerConfiguration controller = createMock(ControllerConfiguration.class);
+		controller.initialize();
+		expect(controller.getRoutes()).andReturn(routes);
+		replayAll();
+
+		RouteTable table = new RouteTable();
+		assertSame(routes, table.getRoutes(controller, "/api"));
+		assertSame(routes, table.getRoutes(controller, "/api"));
+		assertSame(routes, table.getRoutes(controller, "/api"));
+
+		assertEquals(2, table.getAvoidedInitializations());
+		verifyAll();
+	}
+
+	@Test
+	public void testRoutesAreInitializedAfterPathChange() throws Exception {
+		Set<InternalRoute> routes = Collections.emptySet();
+		ControllerConfiguration controller = createMock(ControllerConfiguration.class);
+		controller.initialize();
+		expectLastCall().times(2);
+		expect(controller.getRoutes()).andReturn(routes).times(2);
+		replayAll();
+
+		RouteTable table = new RouteTable();
+		table.getRoutes(controller, "/api");
+		table.getRoutes(controller, "/other");
+
+		assertEquals(0, table.getAvoidedInitializations());
+		verifyAll();
+	}
+
+	@Test
+	public void testInvalidate() throws Exception {
+		Set<InternalRoute> routes = Collections.emptySet();
+		ControllerConfiguration controller = createMock(ControllerConfiguration.class);
+		controller.initialize();
+		expectLastCall().times(2);
+		expect(controller.getRoutes()).andReturn(routes).times(2);
+		replayAll();
+
+		RouteTable table = new RouteTable();
+		table.getRoutes(controller, "/api");
+		table.invalidate();
+		table.getRoutes(controller, "/api");
+
+		assertEquals(0, table.getAvoidedInitializations());
+		verifyAll();
+	}
+}
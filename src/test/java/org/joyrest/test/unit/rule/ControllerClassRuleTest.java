@@ -0,0 +1,103 @@
+package org.joyrest.test.unit.rule;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.Mock;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.annotation.Lifecycle;
+import org.joyrest.test.unit.annotation.TestedController;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class ControllerClassRuleTest {
+
+	private static final AtomicInteger constructions = new AtomicInteger();
+
+	private static final AtomicInteger initializations = new AtomicInteger();
+
+	private static final List<Object> controllers = new CopyOnWriteArrayList<>();
+
+	private static final List<Object> mocks = new CopyOnWriteArrayList<>();
+
+	public static class CountingController extends ControllerConfiguration {
+
+		List<String> list;
+
+		public CountingController() {
+			constructions.incrementAndGet();
+		}
+
+		@Override
+		protected void configure() {
+		}
+
+		@Override
+		public void initialize() {
+			initializations.incrementAndGet();
+		}
+
+		@Override
+		public Set<InternalRoute> getRoutes() {
+			return Collections.emptySet();
+		}
+	}
+
+	@TestedController(value = CountingController.class, lifecycle = Lifecycle.PER_CLASS)
+	public static class PerClassFixture extends ControllerUnitTest {
+
+		@Mock
+		private List<String> list;
+
+		@Test
+		public void first() throws Exception {
+			useFreshMock(1);
+		}
+
+		@Test
+		public void second() throws Exception {
+			useFreshMock(2);
+		}
+
+		private void useFreshMock(int size) {
+			initialize();
+			CountingController controller = (CountingController) holder.getController();
+			controllers.add(controller);
+			mocks.add(list);
+
+			// the mock has to be in the record state, expectations of the other method cannot leak
+			expect(list.size()).andReturn(size);
+			replayAll();
+			assertSame(list, controller.list);
+			assertEquals(size, controller.list.size());
+			verifyAll();
+		}
+	}
+
+	@Test
+	public void testPerClassLifecycle() throws Exception {
+		Result result = JUnitCore.runClasses(PerClassFixture.class);
+
+		assertTrue(String.valueOf(result.getFailures()), result.wasSuccessful());
+		assertEquals(2, result.getRunCount());
+		assertEquals(1, constructions.get());
+		assertEquals(1, initializations.get());
+
+		assertEquals(2, controllers.size());
+		assertSame(controllers.get(0), controllers.get(1));
+		assertEquals(2, mocks.size());
+		assertNotSame(mocks.get(0), mocks.get(1));
+	}
+}
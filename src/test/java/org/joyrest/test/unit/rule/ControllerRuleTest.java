@@ -0,0 +1,82 @@
+package org.joyrest.test.unit.rule;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.Mock;
+import org.joyrest.routing.ControllerConfiguration;
+import org.joyrest.test.unit.ControllerUnitTest;
+import org.joyrest.test.unit.annotation.TestedController;
+import org.joyrest.test.unit.easymock.MockBehavior;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+public class ControllerRuleTest {
+
+	interface Repository {
+
+		String find(String id);
+	}
+
+	public static class RepositoryController extends ControllerConfiguration {
+
+		Repository repository;
+
+		@Override
+		protected void configure() {
+		}
+	}
+
+	@TestedController(RepositoryController.class)
+	public static class BehaviorFixture extends ControllerUnitTest {
+
+		@Mock
+		Repository repository;
+
+		public BehaviorFixture() {
+			holder.withMockBehavior(MockBehavior.fixed(1, TimeUnit.MILLISECONDS));
+		}
+
+		@Test
+		public void nonPublicInterface() throws Exception {
+			expect(repository.find("1")).andReturn("first");
+			expect(repository.find("2")).andThrow(new IllegalStateException("Missing"));
+			replayAll();
+
+			Repository wrapped = ((RepositoryController) holder.getController()).repository;
+			assertNotSame(repository, wrapped);
+			assertEquals("first", wrapped.find("1"));
+			try {
+				wrapped.find("2");
+				fail("Expected the exception of the mock.");
+			} catch (IllegalStateException e) {
+				assertEquals("Missing", e.getMessage());
+			}
+			verifyAll();
+		}
+
+		@Test
+		public void behaviorAfterInjection() throws Exception {
+			try {
+				holder.withMockBehavior("repository", MockBehavior.none());
+				fail("Expected the behavior to be rejected.");
+			} catch (IllegalStateException e) {
+				assertTrue(e.getMessage().startsWith("Mocks of"));
+			}
+		}
+	}
+
+	@Test
+	public void testMockBehaviors() throws Exception {
+		Result result = JUnitCore.runClasses(BehaviorFixture.class);
+
+		assertTrue(String.valueOf(result.getFailures()), result.wasSuccessful());
+		assertEquals(2, result.getRunCount());
+	}
+}
@@ -0,0 +1,67 @@
+package org.joyrest.test.unit.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMockSupport;
+import org.joyrest.test.unit.annotation.LatencyBudget;
+import org.junit.Test;
+import org.junit.runners.model.Statement;
+
+public class LatencyBudgetRunnerTest {
+
+	@LatencyBudget(p99 = "1s", warmup = 100, iterations = 500)
+	private void generousBudget() {
+	}
+
+	@LatencyBudget(p50 = "1ns", warmup = 0, iterations = 10)
+	private void tightBudget() {
+	}
+
+	@LatencyBudget(max = "2 minutes", warmup = 100, iterations = 10)
+	private void invalidBudget() {
+	}
+
+	@Test
+	public void testInvalidBudgetFailsBeforeWarmup() throws Throwable {
+		AtomicInteger counter = new AtomicInteger();
+		try {
+			new LatencyBudgetRunner(budget("invalidBudget"), new EasyMockSupport())
+				.run(statement(counter));
+			fail("Expected invalid budget.");
+		} catch (IllegalArgumentException e) {
+			assertEquals(0, counter.get());
+		}
+	}
+
+	@Test
+	public void testRunWithinBudget() throws Throwable {
+		AtomicInteger counter = new AtomicInteger();
+		new LatencyBudgetRunner(budget("generousBudget"), new EasyMockSupport())
+			.run(statement(counter));
+
+		assertTrue(counter.get() >= 600);
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testRunExceedsBudget() throws Throwable {
+		new LatencyBudgetRunner(budget("tightBudget"), new EasyMockSupport())
+			.run(statement(new AtomicInteger()));
+	}
+
+	private static LatencyBudget budget(String method) throws Exception {
+		return LatencyBudgetRunnerTest.class.getDeclaredMethod(method).getAnnotation(LatencyBudget.class);
+	}
+
+	private static Statement statement(AtomicInteger counter) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				counter.incrementAndGet();
+			}
+		};
+	}
+}
@@ -0,0 +1,107 @@
+package org.joyrest.test.unit.stress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joyrest.model.http.HttpStatus;
+import org.joyrest.test.unit.model.MockRequest;
+import org.junit.Test;
+
+public class StressRunnerTest {
+
+	@Test
+	public void testRun() throws Exception {
+		AtomicInteger counter = new AtomicInteger();
+		StressReport report = new StressRunner(4, 100, Executors.defaultThreadFactory())
+			.run(() -> StressCall.get("/", new MockRequest<>())
+					.expect(response -> response.getStatus() == HttpStatus.OK),
+				(call, response) -> {
+					counter.incrementAndGet();
+					response.status(HttpStatus.OK);
+				});
+
+		assertTrue(report.isSuccessful());
+		assertEquals(400, counter.get());
+		assertEquals(400, report.getCalls());
+		assertEquals(4, report.getLatencies().size());
+		report.getLatencies().forEach(latency -> assertEquals(100, latency.getCount()));
+	}
+
+	@Test
+	public void testRunWithFailures() throws Exception {
+		AtomicInteger counter = new AtomicInteger();
+		StressReport report = new StressRunner(2, 50, Executors.defaultThreadFactory())
+			.run(() -> StressCall.get("/", new MockRequest<>())
+					.expect(response -> response.getStatus() == HttpStatus.OK),
+				(call, response) -> {
+					if (counter.incrementAndGet() % 10 == 0)
+						throw new IllegalStateException("Failure");
+				});
+
+		assertFalse(report.isSuccessful());
+		assertEquals(10, report.getExceptionCount());
+		assertEquals(90, report.getMismatchCount());
+		assertEquals(10, report.getExceptions().size());
+		assertEquals(90, report.getLatencies().stream().mapToInt(ThreadLatency::getCount).sum());
+	}
+
+	@Test
+	public void testFailedCallHasNoLatency() throws Exception {
+		AtomicInteger counter = new AtomicInteger();
+		StressReport report = new StressRunner(1, 20, Executors.defaultThreadFactory())
+			.run(() -> {
+					if (counter.incrementAndGet() % 5 == 0)
+						throw new IllegalStateException("Failure");
+					return StressCall.get("/", new MockRequest<>());
+				},
+				(call, response) -> response.status(HttpStatus.OK));
+
+		assertEquals(4, report.getExceptionCount());
+		assertEquals(16, report.getLatencies().get(0).getCount());
+	}
+
+	@Test
+	public void testFailedStartReleasesWorkers() throws Exception {
+		List<Thread> started = new ArrayList<>();
+		ThreadFactory threadFactory = runnable -> {
+			if (!started.isEmpty())
+				throw new IllegalStateException("No more threads");
+
+			Thread thread = new Thread(runnable);
+			started.add(thread);
+			return thread;
+		};
+
+		AtomicInteger counter = new AtomicInteger();
+		try {
+			new StressRunner(2, 10, threadFactory)
+				.run(() -> StressCall.get("/", new MockRequest<>()), (call, response) -> counter.incrementAndGet());
+			fail("Expected the thread factory to fail.");
+		} catch (IllegalStateException e) {
+			assertEquals("No more threads", e.getMessage());
+		}
+
+		started.get(0).join(TimeUnit.SECONDS.toMillis(10));
+		assertFalse(started.get(0).isAlive());
+		assertEquals(0, counter.get());
+	}
+
+	@Test(expected = AssertionError.class)
+	public void testAssertSuccessful() throws Exception {
+		new StressRunner(1, 1, Executors.defaultThreadFactory())
+			.run(() -> StressCall.get("/", new MockRequest<>()),
+				(call, response) -> {
+					throw new IllegalStateException("Failure");
+				})
+			.assertSuccessful();
+	}
+}
@@ -0,0 +1,150 @@
+package org.joyrest.test.unit.transform;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.joyrest.model.http.HttpMethod;
+import org.joyrest.model.http.MediaType;
+import org.joyrest.model.request.InternalRequest;
+import org.joyrest.model.response.InternalResponse;
+import org.joyrest.routing.InternalRoute;
+import org.joyrest.test.unit.body.ByteBufferBody;
+import org.joyrest.test.unit.model.MockRequest;
+import org.joyrest.test.unit.model.MockResponse;
+import org.joyrest.transform.Reader;
+import org.joyrest.transform.Writer;
+import org.junit.Test;
+
+public class RoundTripTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRoundTrip() throws Exception {
+		Reader reader = createMock(Reader.class);
+		expect(reader.readFrom(anyObject(), anyObject())).andAnswer(() -> {
+			InputStream stream = ((InternalRequest<Object>) getCurrentArguments()[0]).getInputStream();
+			return read(stream).toUpperCase();
+		});
+
+		Writer writer = createMock(Writer.class);
+		writer.writeTo(anyObject(), anyObject());
+		expectLastCall().andAnswer(() -> {
+			InternalResponse<String> response = (InternalResponse<String>) getCurrentArguments()[0];
+			response.getOutputStream().write(response.getEntity().get().getBytes(StandardCharsets.UTF_8));
+			return null;
+		});
+
+		InternalRoute route = createMock(InternalRoute.class);
+		expect(route.getHttpMethod()).andReturn(HttpMethod.POST).anyTimes();
+		expect(route.getPath()).andReturn("/users").anyTimes();
+		expect(route.isHasRequestBody()).andReturn(true).anyTimes();
+		expect(route.getRequestType()).andReturn(null).anyTimes();
+		expect(route.getReaders()).andReturn(Collections.singletonMap(MediaType.JSON, reader)).anyTimes();
+		expect(route.getWriters()).andReturn(Collections.singletonMap(MediaType.JSON, writer)).anyTimes();
+		replay(reader, writer, route);
+
+		MockRequest<Object> request = new MockRequest<>();
+		request.setContentType(MediaType.JSON);
+		request.setAccept(Collections.singletonList(MediaType.JSON));
+		request.setBody(ByteBufferBody.of("petr"));
+		MockResponse<String> response = new MockResponse<>();
+
+		RoundTrip roundTrip = new RoundTrip();
+		roundTrip.read(route, request);
+		assertEquals("PETR", request.getEntity().get());
+
+		response.entity((String) request.getEntity().get());
+		roundTrip.write(route, request, response);
+		assertEquals("PETR", response.getCapture().toString(StandardCharsets.UTF_8));
+
+		SerializationStats stats = roundTrip.getStats().get("POST /users");
+		assertEquals(1, stats.getReads());
+		assertEquals(4, stats.getReadBytes());
+		assertEquals(1, stats.getWrites());
+		assertEquals(4, stats.getWrittenBytes());
+	}
+
+	@Test
+	public void testNegotiation() throws Exception {
+		Writer writer = createMock(Writer.class);
+		writer.writeTo(anyObject(), anyObject());
+		expectLastCall().once();
+
+		InternalRoute route = createMock(InternalRoute.class);
+		expect(route.getHttpMethod()).andReturn(HttpMethod.GET).anyTimes();
+		expect(route.getPath()).andReturn("/users").anyTimes();
+		expect(route.getWriters()).andReturn(Collections.singletonMap(MediaType.JSON, writer)).anyTimes();
+		replay(writer, route);
+
+		MockResponse<String> response = new MockResponse<>();
+		response.entity("petr");
+
+		// partial wildcards are skipped, the full wildcard takes any writer
+		MockRequest<Object> request = new MockRequest<>();
+		request.setAccept(Arrays.asList(MediaType.of("application/*"), MediaType.WILDCARD));
+		new RoundTrip().write(route, request, response);
+		verify(writer);
+
+		request.setAccept(Collections.singletonList(MediaType.of("application/*")));
+		try {
+			new RoundTrip().write(route, request, response);
+			fail("Expected no writer for a partial wildcard.");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().startsWith("There is no writer for the accepted media types"));
+		}
+	}
+
+	@Test
+	public void testWildcardWriterIsDeterministic() throws Exception {
+		Writer xml = createMock(Writer.class);
+		Writer text = createMock(Writer.class);
+		Writer json = createMock(Writer.class);
+		json.writeTo(anyObject(), anyObject());
+		expectLastCall().once();
+		xml.writeTo(anyObject(), anyObject());
+		expectLastCall().once();
+
+		Map<MediaType, Writer> writers = new HashMap<>();
+		writers.put(MediaType.of("text/plain"), text);
+		writers.put(MediaType.of("application/xml"), xml);
+		writers.put(MediaType.JSON, json);
+
+		InternalRoute route = createNiceMock(InternalRoute.class);
+		expect(route.getWriters()).andReturn(writers).anyTimes();
+		replay(xml, text, json, route);
+
+		MockResponse<String> response = new MockResponse<>();
+		response.entity("petr");
+
+		// the JSON writer is preferred, otherwise media types are compared
+		new RoundTrip().write(route, new MockRequest<>(), response);
+		writers.remove(MediaType.JSON);
+		new RoundTrip().write(route, new MockRequest<>(), response);
+		verify(xml, text, json);
+	}
+
+	private static String read(InputStream stream) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int b;
+		while ((b = stream.read()) != -1)
+			output.write(b);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+}